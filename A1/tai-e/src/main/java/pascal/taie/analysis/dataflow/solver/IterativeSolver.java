@@ -43,7 +43,7 @@ class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
         do {
             changed = false;
             for (Node node : cfg) {
-                if (result.getOutFact(node) == null) result.setOutFact(node, analysis.newInitialFact());
+                if (result.getOutFact(node) == null) result.setOutFact(node, analysis.newInitialFact(cfg));
                 for (Node succ : cfg.getSuccsOf(node)) {
                     analysis.meetInto(result.getInFact(succ), result.getOutFact(node));
                     changed |= analysis.transferNode(node, result.getInFact(node), result.getOutFact(node));
@@ -83,7 +83,7 @@ public abstract class Solver<Node, Fact> {
     protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         result.setInFact(cfg.getEntry(), analysis.newBoundaryFact(cfg));
         for (Node node : cfg) {
-            result.setInFact(node, analysis.newInitialFact());
+            result.setInFact(node, analysis.newInitialFact(cfg));
         }
     }
 
@@ -0,0 +1,152 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import pascal.taie.analysis.Benchmarks;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ConstantPropagation#evaluate} on binary expressions,
+ * which dispatches on the operator enums, with the previous dispatch
+ * on the strings of the operators (dispatch "string").
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+public class EvaluateBenchmark {
+
+    /**
+     * Scope of the methods where binary expressions are collected,
+     * "app" or "all".
+     */
+    @Param({"app"})
+    public String scope;
+
+    @Param({"enum", "string"})
+    public String dispatch;
+
+    /**
+     * The int binary expressions, and the facts where both operands
+     * of each expression are constants.
+     */
+    private BinaryExp[] exps;
+
+    private CPFact[] facts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Benchmarks.buildWorld("SimpleBinary",
+                "src/test/resources/dataflow/constprop/", "-scope=" + scope);
+        List<BinaryExp> expList = new ArrayList<>();
+        List<CPFact> factList = new ArrayList<>();
+        for (IR ir : Benchmarks.getIRs(scope)) {
+            for (Stmt stmt : ir) {
+                if (stmt instanceof DefinitionStmt<?, ?> defStmt
+                        && defStmt.getRValue() instanceof BinaryExp exp
+                        && ConstantPropagation.canHoldInt(exp.getOperand1())
+                        && ConstantPropagation.canHoldInt(exp.getOperand2())) {
+                    CPFact fact = new CPFact();
+                    fact.update(exp.getOperand1(), Value.makeConstant(7));
+                    fact.update(exp.getOperand2(), Value.makeConstant(3));
+                    expList.add(exp);
+                    factList.add(fact);
+                }
+            }
+        }
+        exps = expList.toArray(new BinaryExp[0]);
+        facts = factList.toArray(new CPFact[0]);
+    }
+
+    /**
+     * Evaluates every collected expression once.
+     */
+    @Benchmark
+    public void evaluate(Blackhole bh) {
+        if (dispatch.equals("enum")) {
+            for (int i = 0; i < exps.length; ++i) {
+                bh.consume(ConstantPropagation.evaluate(exps[i], facts[i]));
+            }
+        } else {
+            for (int i = 0; i < exps.length; ++i) {
+                bh.consume(evaluateByString(exps[i], facts[i]));
+            }
+        }
+    }
+
+    /**
+     * The previous evaluation of binary expressions, which switches on
+     * the strings of the operators. As before, {@code >>>} is not folded.
+     */
+    private static Value evaluateByString(BinaryExp biExp, CPFact in) {
+        Value value1 = in.get(biExp.getOperand1());
+        Value value2 = in.get(biExp.getOperand2());
+        if (!(value1.isConstant() && value2.isConstant())) {
+            return Value.getNAC();
+        }
+        int int1 = value1.getConstant();
+        int int2 = value2.getConstant();
+        return switch (biExp.getOperator().toString()) {
+            case "+" -> Value.makeConstant(int1 + int2);
+            case "-" -> Value.makeConstant(int1 - int2);
+            case "*" -> Value.makeConstant(int1 * int2);
+            case "/" -> int2 == 0 ? Value.getUndef() : Value.makeConstant(int1 / int2);
+            case "%" -> int2 == 0 ? Value.getUndef() : Value.makeConstant(int1 % int2);
+            case ">>" -> Value.makeConstant(int1 >> int2);
+            case "<<" -> Value.makeConstant(int1 << int2);
+            case "&" -> Value.makeConstant(int1 & int2);
+            case "|" -> Value.makeConstant(int1 | int2);
+            case "^" -> Value.makeConstant(int1 ^ int2);
+            case ">" -> Value.makeConstant(int1 > int2 ? 1 : 0);
+            case "<" -> Value.makeConstant(int1 < int2 ? 1 : 0);
+            case ">=" -> Value.makeConstant(int1 >= int2 ? 1 : 0);
+            case "<=" -> Value.makeConstant(int1 <= int2 ? 1 : 0);
+            case "==" -> Value.makeConstant(int1 == int2 ? 1 : 0);
+            case "!=" -> Value.makeConstant(int1 != int2 ? 1 : 0);
+            default -> Value.getNAC();
+        };
+    }
+}
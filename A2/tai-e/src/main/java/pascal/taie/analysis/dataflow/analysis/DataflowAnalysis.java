@@ -49,6 +49,16 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     Fact newInitialFact();
 
+    /**
+     * @return new initial fact for non-boundary nodes of given CFG.
+     * By default, this method delegates to {@link #newInitialFact()}.
+     * Analyses whose facts can be specialized for the analyzed method
+     * (e.g., indexed by the variables of its IR) may override it.
+     */
+    default Fact newInitialFact(CFG<Node> cfg) {
+        return newInitialFact();
+    }
+
     /**
      * Meets a fact into another (target) fact.
      * This function will be used to handle control-flow confluences.
@@ -0,0 +1,379 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.AnalysisException;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * {@link CPFact} which stores lattice values in primitive arrays indexed
+ * by {@link Var#getIndex()}, i.e., the variables returned by
+ * {@link pascal.taie.ir.IR#getVars()}.
+ * <p>
+ * The kind of the lattice value of each variable is kept in a byte array,
+ * and if a variable holds a constant, then the constant is kept in an int
+ * array (for other kinds, the slot is always 0). Copy, meet and equality
+ * check of two ArrayCPFacts of the same method run over the arrays
+ * directly, without creating any {@link Value} objects.
+ * <p>
+ * The arrays are copy-on-write: {@link #copy()} shares the arrays with
+ * the source fact, and the arrays are copied only when either fact is
+ * actually changed afterwards.
+ */
+public class ArrayCPFact extends CPFact {
+
+    private static final byte UNDEF = 0;
+
+    private static final byte CONSTANT = 1;
+
+    private static final byte NAC = 2;
+
+    private final ArrayMap values;
+
+    /**
+     * Constructs an ArrayCPFact where all given variables are UNDEF.
+     *
+     * @param vars the variables of a method, where the i-th variable
+     *             must have index i.
+     */
+    public ArrayCPFact(List<Var> vars) {
+        this(new ArrayMap(vars,
+                new byte[vars.size()], new int[vars.size()], false));
+    }
+
+    private ArrayCPFact(ArrayMap values) {
+        super(values, false);
+        this.values = values;
+    }
+
+    @Override
+    public Value get(Var key) {
+        int i = values.indexOf(key);
+        return i < 0 ? Value.getUndef() :
+                toValue(values.kinds[i], values.constants[i]);
+    }
+
+    @Override
+    public boolean update(Var key, Value value) {
+        int i = values.indexOf(key);
+        if (i < 0) {
+            if (value.isUndef()) {
+                return false;
+            }
+            throw new AnalysisException(key + " is not a variable of "
+                    + key.getMethod() + " in this fact");
+        }
+        byte kind;
+        int constant = 0;
+        if (value.isConstant()) {
+            kind = CONSTANT;
+            constant = value.getConstant();
+        } else {
+            kind = value.isNAC() ? NAC : UNDEF;
+        }
+        if (values.kinds[i] == kind && values.constants[i] == constant) {
+            return false;
+        }
+        values.set(i, kind, constant);
+        return true;
+    }
+
+    @Override
+    public Value remove(Var key) {
+        return values.remove(key);
+    }
+
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        if (!(fact instanceof ArrayCPFact that) || !isCompatible(that)) {
+            return super.copyFrom(fact);
+        }
+        byte[] kinds = values.kinds;
+        int[] constants = values.constants;
+        byte[] otherKinds = that.values.kinds;
+        int[] otherConstants = that.values.constants;
+        boolean changed = false;
+        for (int i = 0; i < kinds.length; ++i) {
+            byte kind = otherKinds[i];
+            if (kind != UNDEF) {
+                int constant = otherConstants[i];
+                if (kinds[i] != kind || constants[i] != constant) {
+                    values.set(i, kind, constant);
+                    kinds = values.kinds;
+                    constants = values.constants;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Meets given fact into this fact.
+     *
+     * @return true if this fact changed as a result of the call,
+     * otherwise false.
+     * @see ConstantPropagation#meetValue(Value, Value)
+     */
+    boolean meet(ArrayCPFact fact) {
+        byte[] kinds = values.kinds;
+        int[] constants = values.constants;
+        byte[] otherKinds = fact.values.kinds;
+        int[] otherConstants = fact.values.constants;
+        boolean changed = false;
+        for (int i = 0; i < kinds.length; ++i) {
+            byte kind = otherKinds[i];
+            if (kind == UNDEF || kinds[i] == NAC) {
+                continue;
+            }
+            if (kind == NAC || kinds[i] == UNDEF) {
+                values.set(i, kind, otherConstants[i]);
+            } else if (constants[i] != otherConstants[i]) {
+                // two different constants
+                values.set(i, NAC, 0);
+            } else {
+                continue;
+            }
+            kinds = values.kinds;
+            constants = values.constants;
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * @return true if given fact can be met into this fact
+     * via {@link #meet(ArrayCPFact)}.
+     */
+    boolean isCompatible(ArrayCPFact fact) {
+        return values.vars == fact.values.vars;
+    }
+
+    @Override
+    public ArrayCPFact copy() {
+        values.shared = true;
+        return new ArrayCPFact(new ArrayMap(values.vars,
+                values.kinds, values.constants, true));
+    }
+
+    /**
+     * Like {@link CPFact#equals(Object)}, compares the mappings with any
+     * CPFact, and compares the arrays directly if given fact is
+     * an ArrayCPFact of the same method.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof ArrayCPFact that && isCompatible(that)) {
+            return Arrays.equals(values.kinds, that.values.kinds)
+                    && Arrays.equals(values.constants, that.values.constants);
+        }
+        return super.equals(o);
+    }
+
+    /**
+     * Computes the hash code of the mappings as {@link CPFact#hashCode()}.
+     */
+    @Override
+    public int hashCode() {
+        byte[] kinds = values.kinds;
+        int[] constants = values.constants;
+        int hash = 0;
+        for (int i = 0; i < kinds.length; ++i) {
+            if (kinds[i] != UNDEF) {
+                hash += values.vars.get(i).hashCode()
+                        ^ toValue(kinds[i], constants[i]).hashCode();
+            }
+        }
+        return hash;
+    }
+
+    private static Value toValue(byte kind, int constant) {
+        return switch (kind) {
+            case CONSTANT -> Value.makeConstant(constant);
+            case NAC -> Value.getNAC();
+            default -> Value.getUndef();
+        };
+    }
+
+    /**
+     * Map view of the arrays, which serves as the backing map of
+     * {@link MapFact}, so that the operations not specialized by
+     * {@link ArrayCPFact} (e.g., {@link #forEach}) still work.
+     * As UNDEF is represented by absence, the view only contains
+     * the variables whose values are not UNDEF.
+     */
+    private static class ArrayMap extends AbstractMap<Var, Value> {
+
+        /**
+         * The variables of the method, where the i-th variable has index i.
+         */
+        private final List<Var> vars;
+
+        private byte[] kinds;
+
+        private int[] constants;
+
+        /**
+         * Whether {@link #kinds} and {@link #constants} may be shared
+         * with other facts. If so, they must be copied before being modified.
+         */
+        private boolean shared;
+
+        private ArrayMap(List<Var> vars, byte[] kinds, int[] constants,
+                         boolean shared) {
+            this.vars = vars;
+            this.kinds = kinds;
+            this.constants = constants;
+            this.shared = shared;
+        }
+
+        /**
+         * @return the index of given variable in this map,
+         * or -1 if the variable does not belong to {@link #vars}.
+         */
+        private int indexOf(Object o) {
+            if (o instanceof Var var) {
+                int i = var.getIndex();
+                return i < vars.size() && vars.get(i) == var ? i : -1;
+            }
+            return -1;
+        }
+
+        private void set(int i, byte kind, int constant) {
+            if (shared) {
+                kinds = kinds.clone();
+                constants = constants.clone();
+                shared = false;
+            }
+            kinds[i] = kind;
+            constants[i] = constant;
+        }
+
+        @Override
+        public Value get(Object key) {
+            int i = indexOf(key);
+            return i < 0 || kinds[i] == UNDEF ? null :
+                    toValue(kinds[i], constants[i]);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            int i = indexOf(key);
+            return i >= 0 && kinds[i] != UNDEF;
+        }
+
+        @Override
+        public Value remove(Object key) {
+            Value old = get(key);
+            if (old != null) {
+                set(indexOf(key), UNDEF, 0);
+            }
+            return old;
+        }
+
+        @Override
+        public void clear() {
+            if (shared) {
+                kinds = new byte[kinds.length];
+                constants = new int[constants.length];
+                shared = false;
+            } else {
+                Arrays.fill(kinds, UNDEF);
+                Arrays.fill(constants, 0);
+            }
+        }
+
+        @Override
+        public Set<Entry<Var, Value>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Var, Value>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (byte kind : kinds) {
+                        if (kind != UNDEF) {
+                            ++size;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+
+        private class EntryIterator implements Iterator<Entry<Var, Value>> {
+
+            private int next = advance(0);
+
+            private int last = -1;
+
+            private int advance(int i) {
+                while (i < kinds.length && kinds[i] == UNDEF) {
+                    ++i;
+                }
+                return i;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < kinds.length;
+            }
+
+            @Override
+            public Entry<Var, Value> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = advance(next + 1);
+                return Map.entry(vars.get(last),
+                        toValue(kinds[last], constants[last]));
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                set(last, UNDEF, 0);
+                last = -1;
+            }
+        }
+    }
+}
@@ -52,7 +52,7 @@ public class ConstantPropagation extends
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         //in中的每个参数默认为NAC, 而不能是UNDEF, 因这些参数是input/之前传入的, 不可能是UNDEF, 也不能保证是Constant
         //我们尚未处理方法调用, 因此将每个方法中的参数均视为NAC即可
-        CPFact res = new CPFact();
+        CPFact res = new ArrayCPFact(cfg.getIR().getVars());
         for (Var var : cfg.getIR().getParams()) {
             res.update(var, Value.getNAC());
         }
@@ -64,8 +64,19 @@ public class ConstantPropagation extends
         return new CPFact();
     }
 
+    @Override
+    public CPFact newInitialFact(CFG<Stmt> cfg) {
+        return new ArrayCPFact(cfg.getIR().getVars());
+    }
+
     @Override
     public void meetInto(CPFact fact, CPFact target) {
+        if (fact instanceof ArrayCPFact arrayFact
+                && target instanceof ArrayCPFact arrayTarget
+                && arrayTarget.isCompatible(arrayFact)) {
+            arrayTarget.meet(arrayFact);
+            return;
+        }
         fact.forEach((var, val1) -> {
             target.update(var, meetValue(val1, target.get(var)));
         });
@@ -139,49 +150,50 @@ public class ConstantPropagation extends
             int int1 = value1.getConstant();
             int int2 = value2.getConstant();
 
-            String op = biExp.getOperator().toString();
-            switch (op) {
-                //arithmetic
-                case "+":
-                    return Value.makeConstant(int1 + int2);
-                case "-":
-                    return Value.makeConstant(int1 - int2);
-                case "*":
-                    return Value.makeConstant(int1 * int2);
-                case "/":
-                    return int2 == 0 ? Value.getUndef() : Value.makeConstant(int1 / int2);
-                case "%":
-                    return int2 == 0 ? Value.getUndef() : Value.makeConstant(int1 % int2);
-                //shift
-                case ">>":
-                    return Value.makeConstant(int1 >> int2);
-                case "<<":
-                    return Value.makeConstant(int1 << int2);
-                //bitwise
-                case "&":
-                    return Value.makeConstant(int1 & int2);
-                case "|":
-                    return Value.makeConstant(int1 | int2);
-                case "^":
-                    return Value.makeConstant(int1 ^ int2);
-                //condition
-                case ">":
-                    return Value.makeConstant(int1 > int2 ? 1 : 0);
-                case "<":
-                    return Value.makeConstant(int1 < int2 ? 1 : 0);
-                case ">=":
-                    return Value.makeConstant(int1 >= int2 ? 1 : 0);
-                case "<=":
-                    return Value.makeConstant(int1 <= int2 ? 1 : 0);
-                case "==":
-                    return Value.makeConstant(int1 == int2 ? 1 : 0);
-                case "!=":
-                    return Value.makeConstant(int1 != int2 ? 1 : 0);
-                //default
-                default:
-                    break;
-            }
+            return evaluate(biExp.getOperator(), int1, int2);
+        }
+        return Value.getNAC();
+    }
+
+    /**
+     * Evaluates a binary operator on two int constants. Operators are
+     * dispatched on their enum constants, thus no string is created.
+     *
+     * @return the resulting {@link Value}
+     */
+    private static Value evaluate(BinaryExp.Op op, int i1, int i2) {
+        if (op instanceof ArithmeticExp.Op arithmeticOp) {
+            return switch (arithmeticOp) {
+                case ADD -> Value.makeConstant(i1 + i2);
+                case SUB -> Value.makeConstant(i1 - i2);
+                case MUL -> Value.makeConstant(i1 * i2);
+                case DIV -> i2 == 0 ? Value.getUndef() : Value.makeConstant(i1 / i2);
+                case REM -> i2 == 0 ? Value.getUndef() : Value.makeConstant(i1 % i2);
+            };
+        } else if (op instanceof ShiftExp.Op shiftOp) {
+            return switch (shiftOp) {
+                case SHL -> Value.makeConstant(i1 << i2);
+                case SHR -> Value.makeConstant(i1 >> i2);
+                case USHR -> Value.makeConstant(i1 >>> i2);
+            };
+        } else if (op instanceof BitwiseExp.Op bitwiseOp) {
+            return switch (bitwiseOp) {
+                case OR -> Value.makeConstant(i1 | i2);
+                case AND -> Value.makeConstant(i1 & i2);
+                case XOR -> Value.makeConstant(i1 ^ i2);
+            };
+        } else if (op instanceof ConditionExp.Op conditionOp) {
+            boolean result = switch (conditionOp) {
+                case EQ -> i1 == i2;
+                case NE -> i1 != i2;
+                case LT -> i1 < i2;
+                case GT -> i1 > i2;
+                case LE -> i1 <= i2;
+                case GE -> i1 >= i2;
+            };
+            return Value.makeConstant(result ? 1 : 0);
         }
+        // e.g., comparison of long/float/double values
         return Value.getNAC();
     }
 }
@@ -54,6 +54,19 @@ public class MapFact<K, V> {
         this.map = Maps.newHybridMap(map);
     }
 
+    /**
+     * Constructs a new MapFact backed by given map.
+     *
+     * @param map  the map holding the mappings of this fact.
+     * @param copy if true, this fact copies the mappings of given map;
+     *             otherwise, given map is used as the backing map directly,
+     *             which allows subclasses to provide specialized map
+     *             representations.
+     */
+    protected MapFact(Map<K, V> map, boolean copy) {
+        this.map = copy ? Maps.newHybridMap(map) : map;
+    }
+
     /**
      * @return the value to which the specified key is mapped,
      * or null if this map contains no mapping for the key.
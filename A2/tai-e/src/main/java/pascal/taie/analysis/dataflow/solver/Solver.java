@@ -22,21 +22,39 @@
 
 package pascal.taie.analysis.dataflow.solver;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
+
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Base class for data-flow analysis solver, which provides common
  * functionalities for different solver implementations.
+ * <p>
+ * A solver is shared by all methods analyzed by its analysis, and
+ * {@link pascal.taie.analysis.AnalysisManager} runs method analyses
+ * on different methods in parallel, thus solver implementations must
+ * keep all states of solving a CFG local to that solving.
  *
  * @param <Node> type of CFG nodes
  * @param <Fact> type of data-flow facts
  */
 public abstract class Solver<Node, Fact> {
 
+    private static final Logger logger = LogManager.getLogger(Solver.class);
+
     protected final DataflowAnalysis<Node, Fact> analysis;
 
+    /**
+     * Number of node transfers performed by this solver on all CFGs,
+     * which is counted only when debug logging is enabled.
+     */
+    private final LongAdder transferCount = new LongAdder();
+
     protected Solver(DataflowAnalysis<Node, Fact> analysis) {
         this.analysis = analysis;
     }
@@ -46,7 +64,30 @@ public abstract class Solver<Node, Fact> {
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
-        return new WorkListSolver<>(analysis);
+        return makeSolver(analysis, null);
+    }
+
+    /**
+     * Static factory method to create a new solver of given kind
+     * for given analysis.
+     *
+     * @param kind the kind of the solver, i.e., "worklist" (default) for
+     *             work-list solver in FIFO order, "rpo" for work-list
+     *             solver in reverse postorder (postorder for backward
+     *             analyses) of the CFG, or "scc" for {@link SCCSolver}.
+     *             If kind is null, then the default solver is created.
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, String kind) {
+        if (kind == null || kind.equals("worklist")) {
+            return new WorkListSolver<>(analysis, false);
+        } else if (kind.equals("rpo")) {
+            return new WorkListSolver<>(analysis, true);
+        } else if (kind.equals("scc")) {
+            return new SCCSolver<>(analysis);
+        } else {
+            throw new ConfigException("Unknown data-flow solver: " + kind);
+        }
     }
 
     /**
@@ -57,7 +98,12 @@ public abstract class Solver<Node, Fact> {
      */
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
         DataflowResult<Node, Fact> result = initialize(cfg);
-        doSolve(cfg, result);
+        int transfers = doSolve(cfg, result);
+        if (logger.isDebugEnabled()) {
+            transferCount.add(transfers);
+            logger.debug("{}: {} node transfers ({} in total)",
+                    cfg.getMethod(), transfers, transferCount.sum());
+        }
         return result;
     }
 
@@ -80,8 +126,8 @@ public abstract class Solver<Node, Fact> {
         result.setOutFact(cfg.getEntry(), analysis.newBoundaryFact(cfg));
         for (Node node : cfg) {
             if (cfg.isEntry(node)) continue;
-            result.setInFact(node, analysis.newInitialFact());
-            result.setOutFact(node, analysis.newInitialFact());
+            result.setInFact(node, analysis.newInitialFact(cfg));
+            result.setOutFact(node, analysis.newInitialFact(cfg));
         }
     }
 
@@ -91,16 +137,24 @@ public abstract class Solver<Node, Fact> {
 
     /**
      * Solves the data-flow problem for given CFG.
+     *
+     * @return the number of node transfers performed.
      */
-    private void doSolve(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    private int doSolve(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         if (analysis.isForward()) {
-            doSolveForward(cfg, result);
+            return doSolveForward(cfg, result);
         } else {
-            doSolveBackward(cfg, result);
+            return doSolveBackward(cfg, result);
         }
     }
 
-    protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+    /**
+     * @return the number of node transfers performed.
+     */
+    protected abstract int doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
 
-    protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+    /**
+     * @return the number of node transfers performed.
+     */
+    protected abstract int doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
 }
@@ -27,9 +27,32 @@ import pascal.taie.analysis.Tests;
 
 public class CPTest {
 
+    private static final String[] INPUT_CLASSES = {
+            "Assign",
+            "SimpleConstant",
+            "SimpleBinary",
+            "SimpleBranch",
+            "SimpleChar",
+            "BranchConstant",
+            "Interprocedural",
+    };
+
     void testCP(String inputClass) {
+        testCP(inputClass, "edge-refine:false");
+    }
+
+    void testCP(String inputClass, String opts) {
         Tests.test(inputClass, "src/test/resources/dataflow/constprop/",
-                ConstantPropagation.ID, "edge-refine:false");
+                ConstantPropagation.ID, opts);
+    }
+
+    /**
+     * Runs all test cases with given options.
+     */
+    void testAllCP(String opts) {
+        for (String inputClass : INPUT_CLASSES) {
+            testCP(inputClass, opts);
+        }
     }
 
     @Test
@@ -66,4 +89,14 @@ public class CPTest {
     public void testInterprocedural() {
         testCP("Interprocedural");
     }
+
+    @Test
+    public void testRPO() {
+        testAllCP("edge-refine:false;solver:rpo");
+    }
+
+    @Test
+    public void testSCC() {
+        testAllCP("edge-refine:false;solver:scc");
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import pascal.taie.analysis.Benchmarks;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.ir.IR;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+public class DeadCodeBenchmark {
+
+    /**
+     * Scope of the analyzed methods, "app" or "all".
+     */
+    @Param({"app"})
+    public String scope;
+
+    /**
+     * Options of constant propagation, which select its solver.
+     */
+    @Param({"solver:worklist", "solver:rpo", "solver:scc",
+            "sparse:true", "conditional:true"})
+    public String constprop;
+
+    private ConstantPropagation constantPropagation;
+
+    private DeadCodeDetection deadCodeDetection;
+
+    private List<IR> irs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String cpOptions = "edge-refine:false;" + constprop;
+        Benchmarks.buildWorldAndRun("Loops", "src/test/resources/dataflow/deadcode/",
+                "-scope=" + scope, "-a", DeadCodeDetection.ID,
+                "-a", LiveVariableAnalysis.ID + "=strongly:false",
+                "-a", ConstantPropagation.ID + "=" + cpOptions);
+        constantPropagation = new ConstantPropagation(
+                Benchmarks.getConfig(ConstantPropagation.ID, cpOptions));
+        deadCodeDetection = new DeadCodeDetection(
+                Benchmarks.getConfig(DeadCodeDetection.ID, ""));
+        irs = Benchmarks.getIRs(scope);
+    }
+
+    @Benchmark
+    public void constprop(Blackhole bh) {
+        for (IR ir : irs) {
+            bh.consume(constantPropagation.analyze(ir));
+        }
+    }
+
+    /**
+     * Measures dead code detection on the results of constant propagation
+     * and live variable analysis computed in {@link #setUp()}.
+     */
+    @Benchmark
+    public void deadcode(Blackhole bh) {
+        for (IR ir : irs) {
+            bh.consume(deadCodeDetection.analyze(ir));
+        }
+    }
+}
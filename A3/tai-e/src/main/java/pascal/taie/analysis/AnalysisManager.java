@@ -0,0 +1,237 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Creates and executes analyses based on given analysis configurations.
+ * <p>
+ * A {@link MethodAnalysis} is run on the methods in scope in parallel.
+ * Its option {@code parallelism} sets the number of worker threads:
+ * 0 (default) runs it on the common {@link ForkJoinPool}, 1 runs it
+ * sequentially on the current thread, and n > 1 runs it on a dedicated
+ * ForkJoinPool of n threads. The results are stored into the
+ * {@link IR}s by the current thread, in the order of the methods in
+ * scope, after all methods have been analyzed. Thus, the result holders
+ * are never written concurrently, and the stored results, as well as
+ * the output of {@link ResultProcessor}, do not depend on the
+ * parallelism or the scheduling of the threads.
+ */
+public class AnalysisManager {
+
+    private static final Logger logger = LogManager.getLogger(AnalysisManager.class);
+
+    /**
+     * Methods analyzed by a single task, below which the methods
+     * are not split further.
+     */
+    private static final int METHODS_PER_TASK = 8;
+
+    private List<JClass> classScope;
+
+    private List<JMethod> methodScope;
+
+    public void execute(List<AnalysisConfig> analyses) {
+        analyses.forEach(config -> Timer.runAndCount(
+                () -> runAnalysis(config), config.getId()));
+    }
+
+    private void runAnalysis(AnalysisConfig config) {
+        Analysis analysis;
+        // Create analysis instance
+        try {
+            Class<?> clazz = Class.forName(config.getAnalysisClass());
+            Constructor<?> ctor = clazz.getConstructor(AnalysisConfig.class);
+            analysis = (Analysis) ctor.newInstance(config);
+        } catch (ClassNotFoundException | NoSuchMethodException |
+                 InstantiationException | IllegalAccessException |
+                 InvocationTargetException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+        // Run the analysis
+        if (analysis instanceof ProgramAnalysis) {
+            runProgramAnalysis((ProgramAnalysis) analysis);
+        } else if (analysis instanceof ClassAnalysis) {
+            runClassAnalysis((ClassAnalysis) analysis);
+        } else if (analysis instanceof MethodAnalysis) {
+            runMethodAnalysis((MethodAnalysis) analysis);
+        } else {
+            logger.warn(analysis.getClass() + " is not an analysis");
+        }
+    }
+
+    private void runProgramAnalysis(ProgramAnalysis analysis) {
+        Object result = analysis.analyze();
+        if (result != null) {
+            World.get().storeResult(analysis.getId(), result);
+        }
+    }
+
+    private void runClassAnalysis(ClassAnalysis analysis) {
+        getClassScope().parallelStream().forEach(c -> {
+            Object result = analysis.analyze(c);
+            if (result != null) {
+                c.storeResult(analysis.getId(), result);
+            }
+        });
+    }
+
+    private List<JClass> getClassScope() {
+        if (classScope == null) {
+            String scope = World.get().getOptions().getScope();
+            classScope = switch (scope) {
+                case "app" -> World.get().getClassHierarchy()
+                        .applicationClasses()
+                        .toList();
+                case "all" -> World.get().getClassHierarchy()
+                        .allClasses()
+                        .toList();
+                case "reachable" -> throw new ConfigException(
+                        "Scope reachable is not supported, as call graph" +
+                                " is not available in this assignment");
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} classes in scope ({}) of class analyses",
+                    classScope.size(), scope);
+        }
+        return classScope;
+    }
+
+    private void runMethodAnalysis(MethodAnalysis analysis) {
+        List<JMethod> methods = getMethodScope();
+        Object[] results = new Object[methods.size()];
+        AnalyzeTask task = new AnalyzeTask(
+                analysis, methods, results, 0, methods.size());
+        int parallelism = getParallelism(analysis);
+        if (parallelism == 1) {
+            task.compute();
+        } else if (parallelism == 0) {
+            ForkJoinPool.commonPool().invoke(task);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(task);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        for (int i = 0; i < results.length; ++i) {
+            if (results[i] != null) {
+                methods.get(i).getIR().storeResult(analysis.getId(), results[i]);
+            }
+        }
+    }
+
+    private static int getParallelism(MethodAnalysis analysis) {
+        if (analysis.getOptions().get("parallelism") == null) {
+            return 0;
+        }
+        int parallelism = analysis.getOptions().getInt("parallelism");
+        if (parallelism < 0) {
+            throw new ConfigException("Invalid parallelism of " +
+                    analysis.getId() + ": " + parallelism);
+        }
+        return parallelism;
+    }
+
+    private List<JMethod> getMethodScope() {
+        if (methodScope == null) {
+            String scope = World.get().getOptions().getScope();
+            methodScope = switch (scope) {
+                case "app", "all" -> getClassScope()
+                        .stream()
+                        .map(JClass::getDeclaredMethods)
+                        .flatMap(Collection::stream)
+                        .filter(m -> !m.isAbstract() && !m.isNative())
+                        .toList();
+                case "reachable" -> throw new ConfigException(
+                        "Scope reachable is not supported, as call graph" +
+                                " is not available in this assignment");
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} methods in scope ({}) of method analyses",
+                    methodScope.size(), scope);
+        }
+        return methodScope;
+    }
+
+    /**
+     * Analyzes {@code methods[from]} to {@code methods[to - 1]} and
+     * puts their results into the same positions of {@code results},
+     * splitting the range in halves to be analyzed in parallel.
+     */
+    private static class AnalyzeTask extends RecursiveAction {
+
+        private final MethodAnalysis analysis;
+
+        private final List<JMethod> methods;
+
+        private final Object[] results;
+
+        private final int from;
+
+        private final int to;
+
+        private AnalyzeTask(MethodAnalysis analysis, List<JMethod> methods,
+                            Object[] results, int from, int to) {
+            this.analysis = analysis;
+            this.methods = methods;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= METHODS_PER_TASK || getPool() == null) {
+                for (int i = from; i < to; ++i) {
+                    results[i] = analysis.analyze(methods.get(i).getIR());
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new AnalyzeTask(analysis, methods, results, from, mid),
+                        new AnalyzeTask(analysis, methods, results, mid, to));
+            }
+        }
+    }
+}
@@ -26,8 +26,9 @@ import pascal.taie.Assignment;
 import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.SCCPResult;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
-import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
@@ -65,13 +66,24 @@ public class DeadCodeDetection extends MethodAnalysis {
         // obtain CFG
         CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
         // obtain result of constant propagation
-        DataflowResult<Stmt, CPFact> constants =
+        NodeResult<Stmt, CPFact> constants =
                 ir.getResult(ConstantPropagation.ID);
         // obtain result of live variable analysis
-        DataflowResult<Stmt, SetFact<Var>> liveVars =
+        NodeResult<Stmt, SetFact<Var>> liveVars =
                 ir.getResult(LiveVariableAnalysis.ID);
         // keep statements (dead code) sorted in the resulting set
         Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
+        if (constants instanceof SCCPResult sccp) {
+            // executable statements are already discovered by
+            // conditional constant propagation
+            for (Stmt stmt : ir.getStmts()) {
+                if (!sccp.isExecutable(stmt) ||
+                        isDeadAssignment(stmt, liveVars)) {
+                    deadCode.add(stmt);
+                }
+            }
+            return deadCode;
+        }
         // TODO - finish me
         // Your task is to recognize dead code in ir and add it to deadCode
         //按序访问stmt(bfs)
@@ -96,9 +108,7 @@ public class DeadCodeDetection extends MethodAnalysis {
                 }
 
                 //死代码: 左值变量未使用, 且右值无副作用
-                if (!(assign.getLValue() instanceof Var var
-                        && !liveVars.getResult(assign).contains(var)
-                        && hasNoSideEffect(assign.getRValue())))
+                if (!isDeadAssignment(assign, liveVars))
                     reachable.add(assign);  //否则, 在可达代码中加入之. 我们未处理由于下一语句不可达而导致本语句也不再live的情况
             } else if (stmt instanceof If ifStmt) { //if语句处理, 检查是否有不可达分支
                 reachable.add(stmt);    //if语句永远可走到
@@ -152,6 +162,18 @@ public class DeadCodeDetection extends MethodAnalysis {
         return deadCode;
     }
 
+    /**
+     * @return true if given statement is an assignment whose left-hand
+     * variable is not live and whose right-hand side has no side effect.
+     */
+    private static boolean isDeadAssignment(
+            Stmt stmt, NodeResult<Stmt, SetFact<Var>> liveVars) {
+        return stmt instanceof AssignStmt<?, ?> assign
+                && assign.getLValue() instanceof Var var
+                && !liveVars.getResult(assign).contains(var)
+                && hasNoSideEffect(assign.getRValue());
+    }
+
     /**
      * @return true if given RValue has no side effect, otherwise false.
      */
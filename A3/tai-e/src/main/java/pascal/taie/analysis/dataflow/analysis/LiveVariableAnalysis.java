@@ -22,6 +22,7 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
@@ -48,7 +49,7 @@ public class LiveVariableAnalysis extends
 
     @Override
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
-        return new SetFact<Var>();
+        return new BitSetFact<>(cfg.getIR().getVars());
     }
 
     @Override
@@ -56,6 +57,11 @@ public class LiveVariableAnalysis extends
         return new SetFact<Var>();
     }
 
+    @Override
+    public SetFact<Var> newInitialFact(CFG<Stmt> cfg) {
+        return new BitSetFact<>(cfg.getIR().getVars());
+    }
+
     @Override
     public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
         target.union(fact);
@@ -63,16 +69,21 @@ public class LiveVariableAnalysis extends
 
     @Override
     public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
-        //in = use U (out - def)
-        SetFact<Var> tmp = out.copy();
-        if (stmt.getDef().isPresent() && stmt.getDef().get() instanceof Var def) {
-            tmp.remove(def);
+        //in = use U (out - def), computed in place as in only grows.
+        //If def is not in in yet, it is added before the union and removed
+        //after, so that the union neither adds def nor reports it as a change.
+        Var def = stmt.getDef().isPresent()
+                && stmt.getDef().get() instanceof Var var ? var : null;
+        boolean killDef = def != null && in.add(def);
+        boolean changed = in.union(out);
+        if (killDef) {
+            in.remove(def);
         }
         for (RValue val : stmt.getUses()) {
             if (val instanceof Var use) {
-                tmp.add(use);
+                changed |= in.add(use);
             }
         }
-        return in.union(tmp);
+        return changed;
     }
 }
@@ -48,6 +48,15 @@ public class CPFact extends MapFact<Var, Value> {
         super(map);
     }
 
+    /**
+     * Constructs a new CPFact backed by given map.
+     *
+     * @see MapFact#MapFact(Map, boolean)
+     */
+    protected CPFact(Map<Var, Value> map, boolean copy) {
+        super(map, copy);
+    }
+
     /**
      * @return the value of given variable in this fact,
      * or UNDEF the variable is absent in this fact.
@@ -73,4 +82,31 @@ public class CPFact extends MapFact<Var, Value> {
     public CPFact copy() {
         return new CPFact(this.map);
     }
+
+    /**
+     * Compares the mappings of this fact with given fact, which can be
+     * any CPFact, e.g., an {@link ArrayCPFact}.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof CPFact that && map.equals(that.map);
+    }
+
+    /**
+     * Computes the hash code of the mappings as {@link Map#hashCode()}.
+     * The backing hybrid map does not follow this contract when it holds
+     * a single mapping, so the hash code is computed here, to be
+     * consistent with the other CPFacts which are equal to this fact.
+     */
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (Map.Entry<Var, Value> entry : map.entrySet()) {
+            hash += entry.getKey().hashCode() ^ entry.getValue().hashCode();
+        }
+        return hash;
+    }
 }
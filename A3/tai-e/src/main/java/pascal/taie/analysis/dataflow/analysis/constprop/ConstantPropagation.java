@@ -23,7 +23,9 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
@@ -40,8 +42,36 @@ public class ConstantPropagation extends
 
     public static final String ID = "constprop";
 
+    /**
+     * Whether to propagate values sparsely along def-use chains.
+     *
+     * @see SparseCPSolver
+     */
+    private final boolean sparse;
+
+    /**
+     * Whether to discover executable CFG edges together with constants,
+     * i.e., sparse conditional constant propagation.
+     *
+     * @see SCCPSolver
+     */
+    private final boolean conditional;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        sparse = getOptions().getBooleanOrDefault("sparse", false);
+        conditional = getOptions().getBooleanOrDefault("conditional", false);
+    }
+
+    @Override
+    public NodeResult<Stmt, CPFact> analyze(IR ir) {
+        if (conditional) {
+            return new SCCPSolver(this).solve(ir.getResult(CFGBuilder.ID));
+        }
+        if (sparse) {
+            return new SparseCPSolver(this).solve(ir.getResult(CFGBuilder.ID));
+        }
+        return super.analyze(ir);
     }
 
     @Override
@@ -52,7 +82,7 @@ public class ConstantPropagation extends
     @Override
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         //可能在传入之前已定义, 但我们尚不能确定是否为常量
-        CPFact res = new CPFact();
+        CPFact res = new ArrayCPFact(cfg.getIR().getVars());
         for (Var var : cfg.getIR().getParams()) {
             res.update(var, Value.getNAC());
         }
@@ -64,8 +94,19 @@ public class ConstantPropagation extends
         return new CPFact();
     }
 
+    @Override
+    public CPFact newInitialFact(CFG<Stmt> cfg) {
+        return new ArrayCPFact(cfg.getIR().getVars());
+    }
+
     @Override
     public void meetInto(CPFact fact, CPFact target) {
+        if (fact instanceof ArrayCPFact arrayFact
+                && target instanceof ArrayCPFact arrayTarget
+                && arrayTarget.isCompatible(arrayFact)) {
+            arrayTarget.meet(arrayFact);
+            return;
+        }
         fact.forEach((var, val1) -> {
             target.update(var, meetValue(val1, target.get(var)));
         });
@@ -134,32 +175,50 @@ public class ConstantPropagation extends
             int int1 = value1.getConstant();
             int int2 = value2.getConstant();
 
-            String op = biExp.getOperator().toString();
-            return switch (op) {
-                //arithmetic
-                case "+" -> Value.makeConstant(int1 + int2);
-                case "-" -> Value.makeConstant(int1 - int2);
-                case "*" -> Value.makeConstant(int1 * int2);
-                case "/" -> int2 == 0 ? Value.getUndef() : Value.makeConstant(int1 / int2);
-                case "%" -> int2 == 0 ? Value.getUndef() : Value.makeConstant(int1 % int2);
-                //shift
-                case ">>" -> Value.makeConstant(int1 >> int2);
-                case "<<" -> Value.makeConstant(int1 << int2);
-                //bitwise
-                case "&" -> Value.makeConstant(int1 & int2);
-                case "|" -> Value.makeConstant(int1 | int2);
-                case "^" -> Value.makeConstant(int1 ^ int2);
-                //condition
-                case ">" -> Value.makeConstant(int1 > int2 ? 1 : 0);
-                case "<" -> Value.makeConstant(int1 < int2 ? 1 : 0);
-                case ">=" -> Value.makeConstant(int1 >= int2 ? 1 : 0);
-                case "<=" -> Value.makeConstant(int1 <= int2 ? 1 : 0);
-                case "==" -> Value.makeConstant(int1 == int2 ? 1 : 0);
-                case "!=" -> Value.makeConstant(int1 != int2 ? 1 : 0);
-                //default
-                default -> Value.getNAC();
+            return evaluate(biExp.getOperator(), int1, int2);
+        }
+        return Value.getNAC();
+    }
+
+    /**
+     * Evaluates a binary operator on two int constants. Operators are
+     * dispatched on their enum constants, thus no string is created.
+     *
+     * @return the resulting {@link Value}
+     */
+    private static Value evaluate(BinaryExp.Op op, int i1, int i2) {
+        if (op instanceof ArithmeticExp.Op arithmeticOp) {
+            return switch (arithmeticOp) {
+                case ADD -> Value.makeConstant(i1 + i2);
+                case SUB -> Value.makeConstant(i1 - i2);
+                case MUL -> Value.makeConstant(i1 * i2);
+                case DIV -> i2 == 0 ? Value.getUndef() : Value.makeConstant(i1 / i2);
+                case REM -> i2 == 0 ? Value.getUndef() : Value.makeConstant(i1 % i2);
+            };
+        } else if (op instanceof ShiftExp.Op shiftOp) {
+            return switch (shiftOp) {
+                case SHL -> Value.makeConstant(i1 << i2);
+                case SHR -> Value.makeConstant(i1 >> i2);
+                case USHR -> Value.makeConstant(i1 >>> i2);
+            };
+        } else if (op instanceof BitwiseExp.Op bitwiseOp) {
+            return switch (bitwiseOp) {
+                case OR -> Value.makeConstant(i1 | i2);
+                case AND -> Value.makeConstant(i1 & i2);
+                case XOR -> Value.makeConstant(i1 ^ i2);
+            };
+        } else if (op instanceof ConditionExp.Op conditionOp) {
+            boolean result = switch (conditionOp) {
+                case EQ -> i1 == i2;
+                case NE -> i1 != i2;
+                case LT -> i1 < i2;
+                case GT -> i1 > i2;
+                case LE -> i1 <= i2;
+                case GE -> i1 >= i2;
             };
+            return Value.makeConstant(result ? 1 : 0);
         }
+        // e.g., comparison of long/float/double values
         return Value.getNAC();
     }
 }
@@ -0,0 +1,419 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Def-use chains of the variables of a method.
+ * <p>
+ * As the IR is not in SSA form, a use of a variable may be reached by
+ * multiple definitions of the variable, and possibly by the entry of
+ * the method (i.e., the variable is not defined on some path from the
+ * entry to the use). The chains of each variable are built by computing
+ * reaching definitions only inside the live range of the variable,
+ * thus the cost is proportional to the sizes of live ranges, and
+ * the memory retained is proportional to the number of def-use edges.
+ * <p>
+ * Statements are identified by {@link Stmt#getIndex()}, and the entry
+ * of the method is represented by {@link #ENTRY}.
+ */
+class DefUseChains {
+
+    /**
+     * Index which represents the entry of the method.
+     */
+    static final int ENTRY = -1;
+
+    private static final int[] EMPTY = {};
+
+    private final CFG<Stmt> cfg;
+
+    private final List<Stmt> stmts;
+
+    /**
+     * The variable defined by each statement, or null if the statement
+     * does not define a variable.
+     */
+    private final Var[] defVars;
+
+    /**
+     * The distinct variables used by each statement.
+     */
+    private final Var[][] useVars;
+
+    /**
+     * The definitions reaching each use, i.e., useDefs[s][k] are
+     * the definitions of useVars[s][k] which reach statement s.
+     */
+    private final int[][][] useDefs;
+
+    /**
+     * The statements using the variable defined by each statement,
+     * and reached by the definition.
+     */
+    private final int[][] defUses;
+
+    /**
+     * The definitions of each variable which reach each statement,
+     * i.e., allReachIn[v][s] are the definitions of the variable of
+     * index v which reach statement s. The array of a variable is
+     * computed when it is first queried by {@link #findDefs(Stmt, Var)}.
+     */
+    private final int[][][] allReachIn;
+
+    DefUseChains(CFG<Stmt> cfg) {
+        this.cfg = cfg;
+        IR ir = cfg.getIR();
+        stmts = ir.getStmts();
+        int nStmts = stmts.size();
+        defVars = new Var[nStmts];
+        useVars = new Var[nStmts][];
+        useDefs = new int[nStmts][][];
+        defUses = new int[nStmts][];
+        // collect definitions and uses of each variable
+        int nVars = ir.getVars().size();
+        allReachIn = new int[nVars][][];
+        List<List<Stmt>> defsOf = new ArrayList<>(nVars);
+        List<List<Stmt>> usesOf = new ArrayList<>(nVars);
+        for (int i = 0; i < nVars; ++i) {
+            defsOf.add(new ArrayList<>(1));
+            usesOf.add(new ArrayList<>(1));
+        }
+        for (Stmt stmt : stmts) {
+            int s = stmt.getIndex();
+            if (stmt.getDef().isPresent() && stmt.getDef().get() instanceof Var var) {
+                defVars[s] = var;
+                defsOf.get(var.getIndex()).add(stmt);
+            }
+            List<Var> vars = new ArrayList<>(stmt.getUses().size());
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var var && !vars.contains(var)) {
+                    vars.add(var);
+                    usesOf.get(var.getIndex()).add(stmt);
+                }
+            }
+            useVars[s] = vars.toArray(new Var[0]);
+            useDefs[s] = new int[vars.size()][];
+        }
+        // build def-use chains for each variable
+        List<List<Stmt>> defUseLists = new ArrayList<>(nStmts);
+        for (int i = 0; i < nStmts; ++i) {
+            defUseLists.add(null);
+        }
+        RangeBuilder builder = new RangeBuilder(nStmts);
+        for (int i = 0; i < nVars; ++i) {
+            List<Stmt> uses = usesOf.get(i);
+            if (uses.isEmpty()) {
+                continue;
+            }
+            Var var = ir.getVar(i);
+            builder.build(var, uses);
+            for (Stmt use : uses) {
+                int s = use.getIndex();
+                int[] defs = builder.getReachIn(use);
+                useDefs[s][indexOf(useVars[s], var)] = defs;
+                for (int d : defs) {
+                    if (d != ENTRY) {
+                        List<Stmt> list = defUseLists.get(d);
+                        if (list == null) {
+                            list = new ArrayList<>(2);
+                            defUseLists.set(d, list);
+                        }
+                        list.add(use);
+                    }
+                }
+            }
+        }
+        for (int d = 0; d < nStmts; ++d) {
+            List<Stmt> list = defUseLists.get(d);
+            defUses[d] = list == null ? EMPTY :
+                    list.stream().mapToInt(Stmt::getIndex).toArray();
+        }
+    }
+
+    private static int indexOf(Var[] vars, Var var) {
+        for (int i = 0; i < vars.length; ++i) {
+            if (vars[i] == var) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the variable defined by given statement,
+     * or null if the statement does not define a variable.
+     */
+    Var getDefVar(Stmt stmt) {
+        return defVars[stmt.getIndex()];
+    }
+
+    /**
+     * @return the indexes of the statements which use the variable
+     * defined by given statement, and are reached by the definition.
+     */
+    int[] getUses(Stmt def) {
+        return defUses[def.getIndex()];
+    }
+
+    /**
+     * @return the indexes of the definitions (possibly including
+     * {@link #ENTRY}) of given variable which reach given statement,
+     * or null if the statement does not use the variable.
+     */
+    int[] getDefs(Stmt use, Var var) {
+        int s = use.getIndex();
+        if (s >= 0 && s < stmts.size() && stmts.get(s) == use) {
+            int i = indexOf(useVars[s], var);
+            if (i >= 0) {
+                return useDefs[s][i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Computes the definitions of given variable which reach the point
+     * before given node. Unlike {@link #getDefs(Stmt, Var)}, this works
+     * for any node and variable. The first query about a variable
+     * computes its reaching definitions at all statements of the method,
+     * which are reused by later queries about the variable.
+     *
+     * @return the indexes of the definitions (possibly including
+     * {@link #ENTRY}) of given variable which reach given node.
+     */
+    int[] findDefs(Stmt node, Var var) {
+        int[] defs = getDefs(node, var);
+        if (defs != null) {
+            return defs;
+        }
+        int[][] reachIn = allReachIn[var.getIndex()];
+        if (reachIn == null) {
+            reachIn = computeReachIn(var);
+            allReachIn[var.getIndex()] = reachIn;
+        }
+        if (cfg.isEntry(node)) {
+            return EMPTY;
+        }
+        if (cfg.isExit(node)) {
+            int[] result = EMPTY;
+            for (Stmt pred : cfg.getPredsOf(node)) {
+                result = union(result, reachOut(reachIn, pred, var));
+            }
+            return result;
+        }
+        return reachIn[node.getIndex()];
+    }
+
+    /**
+     * @return the definitions of given variable which reach
+     * each statement of the method.
+     */
+    private int[][] computeReachIn(Var var) {
+        int nStmts = stmts.size();
+        int[][] reachIn = new int[nStmts][];
+        Arrays.fill(reachIn, EMPTY);
+        boolean[] inWorkList = new boolean[nStmts];
+        Arrays.fill(inWorkList, true);
+        Deque<Stmt> workList = new ArrayDeque<>(stmts);
+        while (!workList.isEmpty()) {
+            Stmt stmt = workList.poll();
+            int s = stmt.getIndex();
+            inWorkList[s] = false;
+            int[] in = reachIn[s];
+            for (Stmt pred : cfg.getPredsOf(stmt)) {
+                in = union(in, reachOut(reachIn, pred, var));
+            }
+            if (in != reachIn[s]) {
+                reachIn[s] = in;
+                if (defVars[s] != var) {
+                    for (Stmt succ : cfg.getSuccsOf(stmt)) {
+                        if (!cfg.isExit(succ) && !inWorkList[succ.getIndex()]) {
+                            inWorkList[succ.getIndex()] = true;
+                            workList.add(succ);
+                        }
+                    }
+                }
+            }
+        }
+        return reachIn;
+    }
+
+    /**
+     * @return definitions of given variable which reach the point
+     * after given predecessor of a statement.
+     */
+    private int[] reachOut(int[][] reachIn, Stmt pred, Var var) {
+        if (cfg.isEntry(pred)) {
+            return new int[]{ ENTRY };
+        }
+        int p = pred.getIndex();
+        return defVars[p] == var ? new int[]{ p } : reachIn[p];
+    }
+
+    /**
+     * @return union of two sorted int arrays.
+     */
+    private static int[] union(int[] a, int[] b) {
+        if (a.length == 0 || a == b) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[k++] = a[i++];
+            } else if (a[i] > b[j]) {
+                result[k++] = b[j++];
+            } else {
+                result[k++] = a[i++];
+                ++j;
+            }
+        }
+        while (i < a.length) {
+            result[k++] = a[i++];
+        }
+        while (j < b.length) {
+            result[k++] = b[j++];
+        }
+        return k == a.length ? a : (k == result.length ?
+                result : Arrays.copyOf(result, k));
+    }
+
+    /**
+     * Computes reaching definitions of a variable inside its live range.
+     * The arrays are reused for all variables of the method.
+     */
+    private class RangeBuilder {
+
+        /**
+         * Marks the statements in current live range, i.e., where
+         * current variable is live on entry to the statement.
+         */
+        private final int[] live;
+
+        /**
+         * Definitions of current variable reaching each statement
+         * in current live range.
+         */
+        private final int[][] reachIn;
+
+        /**
+         * Marks the statements in the work-list of reaching definitions,
+         * so that a statement is not added to the work-list twice.
+         */
+        private final boolean[] inWorkList;
+
+        private int stamp = 0;
+
+        private RangeBuilder(int nStmts) {
+            live = new int[nStmts];
+            reachIn = new int[nStmts][];
+            inWorkList = new boolean[nStmts];
+        }
+
+        private void build(Var var, List<Stmt> uses) {
+            ++stamp;
+            // compute live range by walking backward from the uses,
+            // stopping at the definitions of the variable
+            List<Stmt> range = new ArrayList<>();
+            Deque<Stmt> workList = new ArrayDeque<>();
+            for (Stmt use : uses) {
+                live[use.getIndex()] = stamp;
+                range.add(use);
+                workList.push(use);
+            }
+            while (!workList.isEmpty()) {
+                for (Stmt pred : cfg.getPredsOf(workList.pop())) {
+                    if (!cfg.isEntry(pred) && defVars[pred.getIndex()] != var
+                            && live[pred.getIndex()] != stamp) {
+                        live[pred.getIndex()] = stamp;
+                        range.add(pred);
+                        workList.push(pred);
+                    }
+                }
+            }
+            // compute reaching definitions inside the live range
+            for (Stmt stmt : range) {
+                reachIn[stmt.getIndex()] = EMPTY;
+                inWorkList[stmt.getIndex()] = true;
+            }
+            workList.addAll(range);
+            while (!workList.isEmpty()) {
+                Stmt stmt = workList.poll();
+                int s = stmt.getIndex();
+                inWorkList[s] = false;
+                int[] in = reachIn[s];
+                for (Stmt pred : cfg.getPredsOf(stmt)) {
+                    in = union(in, reachOut(pred, var));
+                }
+                if (in != reachIn[s]) {
+                    reachIn[s] = in;
+                    if (defVars[s] != var) {
+                        for (Stmt succ : cfg.getSuccsOf(stmt)) {
+                            int t = succ.getIndex();
+                            if (!cfg.isExit(succ) && live[t] == stamp
+                                    && !inWorkList[t]) {
+                                inWorkList[t] = true;
+                                workList.add(succ);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return definitions of current variable which reach
+         * the point after given predecessor of a statement.
+         */
+        private int[] reachOut(Stmt pred, Var var) {
+            if (cfg.isEntry(pred)) {
+                return new int[]{ ENTRY };
+            }
+            int p = pred.getIndex();
+            if (defVars[p] == var) {
+                return new int[]{ p };
+            }
+            return live[p] == stamp ? reachIn[p] : EMPTY;
+        }
+
+        private int[] getReachIn(Stmt use) {
+            return reachIn[use.getIndex()];
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Set;
+
+/**
+ * Result of sparse conditional constant propagation, which also tells
+ * the statements and CFG edges that are executable.
+ * <p>
+ * The values of the definitions that are not executable are UNDEF.
+ * The value of a variable at a statement is the meet of the values of
+ * the definitions reaching the statement, regardless of whether they
+ * reach it over executable edges (see {@link SCCPSolver}).
+ */
+public class SCCPResult extends SparseCPResult {
+
+    private final CFG<Stmt> cfg;
+
+    private final boolean[] executable;
+
+    private final Set<Edge<Stmt>> executableEdges;
+
+    SCCPResult(ConstantPropagation analysis, CFG<Stmt> cfg,
+               DefUseChains chains, Value[] values,
+               boolean[] executable, Set<Edge<Stmt>> executableEdges) {
+        super(analysis, cfg, chains, values);
+        this.cfg = cfg;
+        this.executable = executable;
+        this.executableEdges = executableEdges;
+    }
+
+    /**
+     * @return true if given statement may be executed, otherwise false.
+     * The entry and exit of the CFG are always executable.
+     */
+    public boolean isExecutable(Stmt stmt) {
+        return cfg.isEntry(stmt) || cfg.isExit(stmt)
+                || executable[stmt.getIndex()];
+    }
+
+    /**
+     * @return true if given CFG edge may be taken, otherwise false.
+     */
+    public boolean isExecutable(Edge<Stmt> edge) {
+        return executableEdges.contains(edge);
+    }
+
+    /**
+     * Marks given edge as executable.
+     *
+     * @return true if the edge was not executable before.
+     */
+    boolean markExecutable(Edge<Stmt> edge) {
+        return executableEdges.add(edge);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Queue;
+
+/**
+ * Solver of sparse conditional constant propagation (SCCP), which
+ * discovers executable CFG edges and constants in a single pass.
+ * <p>
+ * Like {@link SparseCPSolver}, values are propagated along def-use
+ * chains, but a statement is evaluated only after an executable edge
+ * flowing into it has been found, and only the out edges of
+ * {@link If} and {@link SwitchStmt} which may be taken under current
+ * values are marked executable. Definitions which are not executable
+ * keep UNDEF, thus they do not contribute to the values at their uses.
+ * <p>
+ * Note that this is not full SCCP. As the IR is not in SSA form, there
+ * are no phi functions at joins, and the value of a variable at a use
+ * is the meet of the values of all executable definitions reaching the
+ * use in the CFG, including those which reach it only over edges which
+ * are not executable. For example, in
+ * <pre>
+ *     x = 1;
+ *     if (true) { x = 2; }
+ *     use(x);
+ * </pre>
+ * {@code x = 1} is executable, and reaches {@code use(x)} over the false
+ * edge of the {@code if}, which is not executable, thus {@code x} is NAC
+ * at {@code use(x)}, while full SCCP would find that it is 2. The result
+ * is still sound, and it is at least as precise as {@link SparseCPSolver}.
+ */
+class SCCPSolver {
+
+    private final ConstantPropagation analysis;
+
+    SCCPSolver(ConstantPropagation analysis) {
+        this.analysis = analysis;
+    }
+
+    SCCPResult solve(CFG<Stmt> cfg) {
+        return new Propagation(cfg).solve();
+    }
+
+    /**
+     * State of solving a single CFG.
+     */
+    private class Propagation {
+
+        private final CFG<Stmt> cfg;
+
+        private final DefUseChains chains;
+
+        private final Value[] values;
+
+        private final boolean[] executable;
+
+        private final SCCPResult result;
+
+        private final Queue<Edge<Stmt>> flowWorkList = new ArrayDeque<>();
+
+        private final Queue<Stmt> useWorkList = new ArrayDeque<>();
+
+        private final boolean[] inUseWorkList;
+
+        private Propagation(CFG<Stmt> cfg) {
+            this.cfg = cfg;
+            chains = new DefUseChains(cfg);
+            int nStmts = cfg.getIR().getStmts().size();
+            values = new Value[nStmts];
+            Arrays.fill(values, Value.getUndef());
+            executable = new boolean[nStmts];
+            inUseWorkList = new boolean[nStmts];
+            result = new SCCPResult(analysis, cfg, chains,
+                    values, executable, new HashSet<>());
+        }
+
+        private SCCPResult solve() {
+            flowWorkList.addAll(cfg.getOutEdgesOf(cfg.getEntry()));
+            while (!flowWorkList.isEmpty() || !useWorkList.isEmpty()) {
+                while (!flowWorkList.isEmpty()) {
+                    Edge<Stmt> edge = flowWorkList.poll();
+                    Stmt target = edge.getTarget();
+                    if (result.markExecutable(edge) && !cfg.isExit(target)
+                            && !executable[target.getIndex()]) {
+                        executable[target.getIndex()] = true;
+                        visit(target);
+                        if (!(target instanceof If)
+                                && !(target instanceof SwitchStmt)) {
+                            // other statements flow to all successors
+                            flowWorkList.addAll(cfg.getOutEdgesOf(target));
+                        }
+                    }
+                }
+                if (!useWorkList.isEmpty()) {
+                    Stmt stmt = useWorkList.poll();
+                    inUseWorkList[stmt.getIndex()] = false;
+                    visit(stmt);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Evaluates an executable statement. If the value it defines
+         * changes, its executable uses are added to use work-list;
+         * if it is a branch, the out edges which may be taken are
+         * added to flow work-list.
+         */
+        private void visit(Stmt stmt) {
+            if (stmt instanceof If ifStmt) {
+                Value cond = evaluateCondition(ifStmt.getCondition(),
+                        result.getSolvingInFact(stmt));
+                if (cond.isConstant()) {
+                    Edge.Kind kind = cond.getConstant() == 1 ?
+                            Edge.Kind.IF_TRUE : Edge.Kind.IF_FALSE;
+                    for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                        if (edge.getKind() == kind) {
+                            flowWorkList.add(edge);
+                        }
+                    }
+                } else if (cond.isNAC()) {
+                    flowWorkList.addAll(cfg.getOutEdgesOf(stmt));
+                }
+            } else if (stmt instanceof SwitchStmt switchStmt) {
+                Value var = result.getValue(stmt, switchStmt.getVar(), false);
+                if (var.isConstant()) {
+                    boolean matched = false;
+                    for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                        if (edge.isSwitchCase()
+                                && edge.getCaseValue() == var.getConstant()) {
+                            matched = true;
+                            flowWorkList.add(edge);
+                        }
+                    }
+                    if (!matched) {
+                        for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                            if (edge.getKind() == Edge.Kind.SWITCH_DEFAULT) {
+                                flowWorkList.add(edge);
+                            }
+                        }
+                    }
+                } else if (var.isNAC()) {
+                    flowWorkList.addAll(cfg.getOutEdgesOf(stmt));
+                }
+            } else if (chains.getDefVar(stmt) != null) {
+                int s = stmt.getIndex();
+                Value value = SparseCPSolver.evaluate(stmt, result);
+                if (!value.equals(values[s])) {
+                    values[s] = value;
+                    for (int u : chains.getUses(stmt)) {
+                        if (executable[u] && !inUseWorkList[u]) {
+                            useWorkList.add(cfg.getIR().getStmt(u));
+                            inUseWorkList[u] = true;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluates the condition of an {@link If}. The result is UNDEF if
+     * an int operand is still UNDEF, so that no branch is taken until
+     * a definition of the operand becomes executable.
+     */
+    private static Value evaluateCondition(ConditionExp cond, CPFact in) {
+        if (isUndef(cond.getOperand1(), in) || isUndef(cond.getOperand2(), in)) {
+            return Value.getUndef();
+        }
+        return ConstantPropagation.evaluate(cond, in);
+    }
+
+    private static boolean isUndef(Var var, CPFact in) {
+        return ConstantPropagation.canHoldInt(var) && in.get(var).isUndef();
+    }
+}
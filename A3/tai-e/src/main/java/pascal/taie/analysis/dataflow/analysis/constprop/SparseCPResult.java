@@ -0,0 +1,208 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of sparse constant propagation.
+ * <p>
+ * Only the values of the definitions are stored. The IN/OUT facts of
+ * statements are read-only views computed on demand, so that looking up
+ * the values of the variables used by a statement (e.g., the condition
+ * of an {@link pascal.taie.ir.stmt.If}) is cheap, while iterating
+ * a whole fact computes the values of all variables at the statement.
+ * The view of each fact is created on its first query and reused by
+ * later queries.
+ */
+public class SparseCPResult implements NodeResult<Stmt, CPFact> {
+
+    private final ConstantPropagation analysis;
+
+    private final CFG<Stmt> cfg;
+
+    private final DefUseChains chains;
+
+    /**
+     * Values of the variables defined by each statement.
+     */
+    private final Value[] values;
+
+    /**
+     * Views of the IN/OUT facts of each statement, created on demand.
+     */
+    private final CPFact[] inFacts, outFacts;
+
+    /**
+     * View of the IN fact of the statement being evaluated by a solver.
+     * It is moved to each evaluated statement, and does not cache
+     * its entries, as the values change while solving.
+     */
+    private final FactView solvingView;
+
+    private final CPFact solvingFact;
+
+    SparseCPResult(ConstantPropagation analysis, CFG<Stmt> cfg,
+                   DefUseChains chains, Value[] values) {
+        this.analysis = analysis;
+        this.cfg = cfg;
+        this.chains = chains;
+        this.values = values;
+        inFacts = new CPFact[values.length];
+        outFacts = new CPFact[values.length];
+        solvingView = new FactView(null, false);
+        solvingFact = new CPFact(solvingView, false);
+    }
+
+    @Override
+    public CPFact getInFact(Stmt stmt) {
+        return getFact(stmt, false, inFacts);
+    }
+
+    @Override
+    public CPFact getOutFact(Stmt stmt) {
+        return getFact(stmt, true, outFacts);
+    }
+
+    private CPFact getFact(Stmt stmt, boolean out, CPFact[] facts) {
+        if (cfg.isEntry(stmt) || cfg.isExit(stmt)) {
+            // entry and exit are not indexed by the IR
+            return new CPFact(new FactView(stmt, out), false);
+        }
+        int s = stmt.getIndex();
+        CPFact fact = facts[s];
+        if (fact == null) {
+            fact = new CPFact(new FactView(stmt, out), false);
+            facts[s] = fact;
+        }
+        return fact;
+    }
+
+    /**
+     * @return the IN fact of given statement for the solvers to evaluate
+     * the statement. The returned fact is reused for every statement,
+     * thus it is valid only until the next call of this method.
+     */
+    CPFact getSolvingInFact(Stmt stmt) {
+        solvingView.stmt = stmt;
+        return solvingFact;
+    }
+
+    /**
+     * @return the value of given variable before (or after if
+     * {@code out} is true) given statement.
+     */
+    Value getValue(Stmt stmt, Var var, boolean out) {
+        if (cfg.isEntry(stmt)) {
+            return out ? getEntryValue(var) : Value.getUndef();
+        }
+        if (out && !cfg.isExit(stmt) && chains.getDefVar(stmt) == var) {
+            return values[stmt.getIndex()];
+        }
+        Value value = Value.getUndef();
+        for (int d : chains.findDefs(stmt, var)) {
+            value = analysis.meetValue(d == DefUseChains.ENTRY ?
+                    getEntryValue(var) : values[d], value);
+        }
+        return value;
+    }
+
+    /**
+     * @return the value of given variable at the entry of the method.
+     */
+    private Value getEntryValue(Var var) {
+        return cfg.getIR().getParams().contains(var) ?
+                Value.getNAC() : Value.getUndef();
+    }
+
+    /**
+     * Map view of the fact before/after a statement, which contains
+     * the variables whose values are not UNDEF.
+     */
+    private class FactView extends AbstractMap<Var, Value> {
+
+        private Stmt stmt;
+
+        private final boolean out;
+
+        private Map<Var, Value> entries;
+
+        private FactView(Stmt stmt, boolean out) {
+            this.stmt = stmt;
+            this.out = out;
+        }
+
+        @Override
+        public Value get(Object key) {
+            if (key instanceof Var var) {
+                List<Var> vars = cfg.getIR().getVars();
+                int i = var.getIndex();
+                if (i < vars.size() && vars.get(i) == var) {
+                    Value value = getValue(stmt, var, out);
+                    return value.isUndef() ? null : value;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Value getOrDefault(Object key, Value defaultValue) {
+            Value value = get(key);
+            return value != null ? value : defaultValue;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<Var, Value>> entrySet() {
+            Map<Var, Value> entries = this.entries;
+            if (entries == null) {
+                entries = new LinkedHashMap<>();
+                for (Var var : cfg.getIR().getVars()) {
+                    Value value = getValue(stmt, var, out);
+                    if (!value.isUndef()) {
+                        entries.put(var, value);
+                    }
+                }
+                entries = Collections.unmodifiableMap(entries);
+                if (this != solvingView) {
+                    this.entries = entries;
+                }
+            }
+            return entries.entrySet();
+        }
+    }
+}
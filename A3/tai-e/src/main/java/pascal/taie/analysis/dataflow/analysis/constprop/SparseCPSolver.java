@@ -0,0 +1,96 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Sparse solver of constant propagation, which propagates values
+ * along def-use chains (in the style of Wegman-Zadeck) instead of
+ * propagating whole {@link CPFact}s along the CFG.
+ * <p>
+ * Each definition of a variable holds a single {@link Value}, and
+ * the value of a variable at a use is the meet of the values of
+ * the definitions reaching the use. When the value of a definition
+ * changes, only the definitions which use it are re-evaluated.
+ */
+class SparseCPSolver {
+
+    private final ConstantPropagation analysis;
+
+    SparseCPSolver(ConstantPropagation analysis) {
+        this.analysis = analysis;
+    }
+
+    SparseCPResult solve(CFG<Stmt> cfg) {
+        DefUseChains chains = new DefUseChains(cfg);
+        List<Stmt> stmts = cfg.getIR().getStmts();
+        Value[] values = new Value[stmts.size()];
+        Arrays.fill(values, Value.getUndef());
+        SparseCPResult result = new SparseCPResult(analysis, cfg, chains, values);
+        Queue<Stmt> workList = new ArrayDeque<>();
+        boolean[] inWorkList = new boolean[stmts.size()];
+        for (Stmt stmt : stmts) {
+            if (chains.getDefVar(stmt) != null) {
+                workList.add(stmt);
+                inWorkList[stmt.getIndex()] = true;
+            }
+        }
+        while (!workList.isEmpty()) {
+            Stmt stmt = workList.poll();
+            int s = stmt.getIndex();
+            inWorkList[s] = false;
+            Value value = evaluate(stmt, result);
+            if (!value.equals(values[s])) {
+                values[s] = value;
+                for (int u : chains.getUses(stmt)) {
+                    if (!inWorkList[u] && chains.getDefVar(stmts.get(u)) != null) {
+                        workList.add(stmts.get(u));
+                        inWorkList[u] = true;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the value of the variable defined by given statement.
+     */
+    static Value evaluate(Stmt stmt, SparseCPResult result) {
+        if (stmt instanceof DefinitionStmt<?, ?> defStmt) {
+            return ConstantPropagation.evaluate(
+                    defStmt.getRValue(), result.getSolvingInFact(stmt));
+        }
+        // e.g., catch exception
+        return Value.getNAC();
+    }
+}
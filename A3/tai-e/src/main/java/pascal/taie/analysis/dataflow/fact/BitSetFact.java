@@ -0,0 +1,311 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Represents set-like data-flow facts as dense bit vectors.
+ * <p>
+ * The elements are drawn from a fixed universe, e.g., the variables
+ * returned by {@link pascal.taie.ir.IR#getVars()}, where the index of
+ * each element (given by {@link Indexable#getIndex()}) is its position
+ * in the universe. Set operations between two BitSetFacts of the same
+ * universe are performed word by word.
+ * <p>
+ * The bit vector is copy-on-write: {@link #copy()} and {@link #set(SetFact)}
+ * share the words with the source fact, and the words are copied only when
+ * either fact is actually changed afterwards.
+ *
+ * @param <E> type of elements
+ */
+public class BitSetFact<E extends Indexable> extends SetFact<E> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private final BitSetView<E> bits;
+
+    /**
+     * Constructs an empty BitSetFact over given universe.
+     *
+     * @param universe the list of all possible elements, where
+     *                 the i-th element must have index i.
+     */
+    public BitSetFact(List<E> universe) {
+        this(new BitSetView<>(universe,
+                new long[wordIndex(universe.size() - 1) + 1], false));
+    }
+
+    private BitSetFact(BitSetView<E> bits) {
+        super(bits, false);
+        this.bits = bits;
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >> ADDRESS_BITS_PER_WORD;
+    }
+
+    @Override
+    public boolean union(SetFact<E> other) {
+        if (!(other instanceof BitSetFact<E> that)) {
+            return super.union(other);
+        }
+        checkUniverse(that);
+        long[] words = bits.words;
+        long[] otherWords = that.bits.words;
+        for (int i = 0; i < words.length; ++i) {
+            if ((words[i] | otherWords[i]) != words[i]) {
+                words = bits.mutableWords();
+                for (; i < words.length; ++i) {
+                    words[i] |= otherWords[i];
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean intersect(SetFact<E> other) {
+        if (!(other instanceof BitSetFact<E> that)) {
+            return super.intersect(other);
+        }
+        checkUniverse(that);
+        long[] words = bits.words;
+        long[] otherWords = that.bits.words;
+        for (int i = 0; i < words.length; ++i) {
+            if ((words[i] & otherWords[i]) != words[i]) {
+                words = bits.mutableWords();
+                for (; i < words.length; ++i) {
+                    words[i] &= otherWords[i];
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void set(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            checkUniverse(that);
+            that.bits.shared = true;
+            bits.words = that.bits.words;
+            bits.shared = true;
+        } else {
+            super.set(other);
+        }
+    }
+
+    @Override
+    public BitSetFact<E> copy() {
+        bits.shared = true;
+        return new BitSetFact<>(
+                new BitSetView<>(bits.universe, bits.words, true));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (long word : bits.words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof BitSetFact<?> that
+                && bits.universe == that.bits.universe) {
+            return bits.words == that.bits.words
+                    || Arrays.equals(bits.words, that.bits.words);
+        }
+        return super.equals(o);
+    }
+
+    private void checkUniverse(BitSetFact<E> other) {
+        assert bits.universe == other.bits.universe :
+                "Cannot operate on BitSetFacts of different universes";
+    }
+
+    /**
+     * Set view of the bit vector, which serves as the backing set
+     * of {@link SetFact}, so that the operations not specialized by
+     * {@link BitSetFact} (e.g., {@link #stream()}) still work.
+     */
+    private static class BitSetView<E extends Indexable> extends AbstractSet<E> {
+
+        /**
+         * The universe of elements, where the i-th element has index i.
+         */
+        private final List<E> universe;
+
+        private long[] words;
+
+        /**
+         * Whether {@link #words} may be shared with other facts.
+         * If so, the words must be copied before being modified.
+         */
+        private boolean shared;
+
+        private BitSetView(List<E> universe, long[] words, boolean shared) {
+            this.universe = universe;
+            this.words = words;
+            this.shared = shared;
+        }
+
+        /**
+         * @return the words which can be modified safely.
+         */
+        private long[] mutableWords() {
+            if (shared) {
+                words = words.clone();
+                shared = false;
+            }
+            return words;
+        }
+
+        private boolean get(int index) {
+            return (words[wordIndex(index)] & (1L << index)) != 0;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (o instanceof Indexable e) {
+                int index = e.getIndex();
+                return index >= 0 && index < universe.size()
+                        && universe.get(index) == e
+                        && get(index);
+            }
+            return false;
+        }
+
+        @Override
+        public boolean add(E e) {
+            int index = e.getIndex();
+            if (get(index)) {
+                return false;
+            }
+            mutableWords()[wordIndex(index)] |= 1L << index;
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (contains(o)) {
+                int index = ((Indexable) o).getIndex();
+                mutableWords()[wordIndex(index)] &= ~(1L << index);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super E> filter) {
+            boolean changed = false;
+            for (int i = 0; i < words.length; ++i) {
+                long word = words[i];
+                while (word != 0) {
+                    int index = (i << ADDRESS_BITS_PER_WORD)
+                            + Long.numberOfTrailingZeros(word);
+                    if (filter.test(universe.get(index))) {
+                        mutableWords()[i] &= ~(1L << index);
+                        changed = true;
+                    }
+                    word &= word - 1;
+                }
+            }
+            return changed;
+        }
+
+        @Override
+        public void clear() {
+            if (shared) {
+                words = new long[words.length];
+                shared = false;
+            } else {
+                Arrays.fill(words, 0L);
+            }
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (long word : words) {
+                size += Long.bitCount(word);
+            }
+            return size;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int wordIndex = 0;
+
+                private long word = words.length > 0 ? words[0] : 0;
+
+                private int lastIndex = -1;
+
+                @Override
+                public boolean hasNext() {
+                    while (word == 0 && wordIndex + 1 < words.length) {
+                        word = words[++wordIndex];
+                    }
+                    return word != 0;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    lastIndex = (wordIndex << ADDRESS_BITS_PER_WORD)
+                            + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    return universe.get(lastIndex);
+                }
+
+                @Override
+                public void remove() {
+                    if (lastIndex < 0) {
+                        throw new IllegalStateException();
+                    }
+                    mutableWords()[wordIndex(lastIndex)] &= ~(1L << lastIndex);
+                    lastIndex = -1;
+                }
+            };
+        }
+    }
+}
@@ -48,6 +48,19 @@ public class SetFact<E> {
         this(Collections.emptySet());
     }
 
+    /**
+     * Constructs a new SetFact backed by given set.
+     *
+     * @param set  the set holding the elements of this fact.
+     * @param copy if true, this fact copies the elements of given set;
+     *             otherwise, given set is used as the backing set directly,
+     *             which allows subclasses to provide specialized set
+     *             representations.
+     */
+    protected SetFact(Set<E> set, boolean copy) {
+        this.set = copy ? Sets.newHybridSet(set) : set;
+    }
+
     /**
      * @return true if this set contains the specified element, otherwise false.
      */
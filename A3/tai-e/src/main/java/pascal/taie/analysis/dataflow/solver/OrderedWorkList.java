@@ -0,0 +1,160 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Work-list which polls nodes by their positions in a fixed order of
+ * the nodes of a CFG, instead of by insertion order.
+ * Each node is kept in the work-list at most once.
+ *
+ * @param <Node> type of CFG nodes
+ */
+class OrderedWorkList<Node> extends AbstractQueue<Node> {
+
+    /**
+     * The nodes in the order, where the i-th node has position i.
+     */
+    private final List<Node> nodes;
+
+    private final Map<Node, Integer> positions;
+
+    /**
+     * Positions of the nodes currently in this work-list.
+     */
+    private final BitSet pending;
+
+    private OrderedWorkList(List<Node> nodes) {
+        this.nodes = nodes;
+        this.positions = Maps.newMap(nodes.size());
+        for (int i = 0; i < nodes.size(); ++i) {
+            positions.put(nodes.get(i), i);
+        }
+        this.pending = new BitSet(nodes.size());
+    }
+
+    /**
+     * @return a work-list ordered by reverse postorder of given CFG,
+     * which suits forward analyses, or by postorder if {@code reverse}
+     * is false, which suits backward analyses.
+     */
+    static <Node> OrderedWorkList<Node> of(CFG<Node> cfg, boolean reverse) {
+        List<Node> postorder = computePostorder(cfg);
+        if (reverse) {
+            Collections.reverse(postorder);
+        }
+        return new OrderedWorkList<>(postorder);
+    }
+
+    /**
+     * Computes postorder of the nodes of given CFG by depth-first search
+     * from the entry node. The nodes which are unreachable from the entry
+     * are then searched in iteration order of the CFG, so that
+     * the result contains every node of the CFG.
+     */
+    private static <Node> List<Node> computePostorder(CFG<Node> cfg) {
+        List<Node> postorder = new ArrayList<>(cfg.getNumberOfNodes());
+        Set<Node> visited = Sets.newSet(cfg.getNumberOfNodes());
+        Deque<Node> stack = new ArrayDeque<>();
+        Deque<Iterator<Node>> succs = new ArrayDeque<>();
+        List<Node> roots = new ArrayList<>();
+        roots.add(cfg.getEntry());
+        cfg.forEach(roots::add);
+        for (Node root : roots) {
+            if (!visited.add(root)) {
+                continue;
+            }
+            stack.push(root);
+            succs.push(cfg.getSuccsOf(root).iterator());
+            while (!stack.isEmpty()) {
+                Iterator<Node> it = succs.peek();
+                if (it.hasNext()) {
+                    Node succ = it.next();
+                    if (visited.add(succ)) {
+                        stack.push(succ);
+                        succs.push(cfg.getSuccsOf(succ).iterator());
+                    }
+                } else {
+                    postorder.add(stack.pop());
+                    succs.pop();
+                }
+            }
+        }
+        return postorder;
+    }
+
+    @Override
+    public boolean offer(Node node) {
+        int pos = positions.get(node);
+        if (pending.get(pos)) {
+            return false;
+        }
+        pending.set(pos);
+        return true;
+    }
+
+    @Override
+    public Node poll() {
+        int pos = pending.nextSetBit(0);
+        if (pos < 0) {
+            return null;
+        }
+        pending.clear(pos);
+        return nodes.get(pos);
+    }
+
+    @Override
+    public Node peek() {
+        int pos = pending.nextSetBit(0);
+        return pos < 0 ? null : nodes.get(pos);
+    }
+
+    @Override
+    public int size() {
+        return pending.cardinality();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return pending.stream().mapToObj(nodes::get).iterator();
+    }
+}
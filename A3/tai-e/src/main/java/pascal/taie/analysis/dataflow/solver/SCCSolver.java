@@ -0,0 +1,129 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.TopoSorter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Solver which condenses the CFG into its strongly connected components
+ * (SCCs), and visits the SCCs in topological order (reverse topological
+ * order for backward analyses). The nodes are iterated only inside
+ * the SCC being visited until it converges, thus the nodes which are
+ * not in any loop are transferred exactly once. Inside each SCC,
+ * the nodes are processed in reverse postorder (postorder for backward
+ * analyses) of the CFG.
+ */
+class SCCSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    SCCSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected int doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        MergedSCCGraph<Node> sccGraph = new MergedSCCGraph<>(cfg);
+        List<MergedNode<Node>> sccs = new TopoSorter<>(sccGraph).get();
+        Map<Node, MergedNode<Node>> sccOf = getSCCMap(cfg, sccs);
+        Queue<Node> workList = OrderedWorkList.of(cfg, true);
+        int transfers = 0;
+        for (MergedNode<Node> scc : sccs) {
+            for (Node node : scc.getNodes()) {
+                if (!cfg.isEntry(node)) {
+                    workList.offer(node);
+                }
+            }
+            while (!workList.isEmpty()) {
+                Node node = workList.poll();
+                Fact in = result.getInFact(node);
+                for (Node pred : cfg.getPredsOf(node)) {
+                    analysis.meetInto(result.getOutFact(pred), in);
+                }
+                ++transfers;
+                if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                    for (Node succ : cfg.getSuccsOf(node)) {
+                        if (sccOf.get(succ) == scc) {
+                            workList.offer(succ);
+                        }
+                    }
+                }
+            }
+        }
+        return transfers;
+    }
+
+    @Override
+    protected int doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        MergedSCCGraph<Node> sccGraph = new MergedSCCGraph<>(cfg);
+        List<MergedNode<Node>> sccs = new TopoSorter<>(sccGraph, true).get();
+        Map<Node, MergedNode<Node>> sccOf = getSCCMap(cfg, sccs);
+        Queue<Node> workList = OrderedWorkList.of(cfg, false);
+        int transfers = 0;
+        for (MergedNode<Node> scc : sccs) {
+            for (Node node : scc.getNodes()) {
+                if (!cfg.isExit(node)) {
+                    workList.offer(node);
+                }
+            }
+            while (!workList.isEmpty()) {
+                Node node = workList.poll();
+                Fact out = result.getOutFact(node);
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    analysis.meetInto(result.getInFact(succ), out);
+                }
+                ++transfers;
+                if (analysis.transferNode(node, result.getInFact(node), out)) {
+                    for (Node pred : cfg.getPredsOf(node)) {
+                        if (sccOf.get(pred) == scc) {
+                            workList.offer(pred);
+                        }
+                    }
+                }
+            }
+        }
+        return transfers;
+    }
+
+    /**
+     * @return a map from each node of the CFG to the SCC containing it.
+     */
+    private static <Node> Map<Node, MergedNode<Node>> getSCCMap(
+            CFG<Node> cfg, List<MergedNode<Node>> sccs) {
+        Map<Node, MergedNode<Node>> sccOf = Maps.newMap(cfg.getNumberOfNodes());
+        for (MergedNode<Node> scc : sccs) {
+            for (Node node : scc.getNodes()) {
+                sccOf.put(node, scc);
+            }
+        }
+        return sccOf;
+    }
+}
@@ -27,47 +27,79 @@ import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 
 import java.util.ArrayDeque;
+import java.util.Queue;
 
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
+    /**
+     * Whether the work-list is ordered by reverse postorder
+     * (postorder for backward analyses) of the CFG instead of FIFO.
+     */
+    private final boolean ordered;
+
     WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        this(analysis, false);
+    }
+
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis, boolean ordered) {
         super(analysis);
+        this.ordered = ordered;
+    }
+
+    /**
+     * @return a new empty work-list for given CFG.
+     */
+    private Queue<Node> newWorkList(CFG<Node> cfg, boolean forward) {
+        return ordered ? OrderedWorkList.of(cfg, forward) : new ArrayDeque<>();
     }
 
     @Override
-    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+    protected int doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         //用于Constant Propagation
-        ArrayDeque<Node> worklist = new ArrayDeque<>();
+        Queue<Node> worklist = newWorkList(cfg, true);
         for (Node node : cfg) {
             if (cfg.isEntry(node)) continue;
-            worklist.addLast(node);
+            worklist.offer(node);
         }
 
+        int transfers = 0;
         while (!worklist.isEmpty()) {
-            Node node = worklist.pollFirst();
+            Node node = worklist.poll();
             for (Node pred : cfg.getPredsOf(node)) {
                 analysis.meetInto(result.getOutFact(pred), result.getInFact(node));
             }
+            ++transfers;
             if (analysis.transferNode(node, result.getInFact(node), result.getOutFact(node))) {
                 for (Node succ : cfg.getSuccsOf(node)) {
-                    worklist.addLast(succ);
+                    worklist.offer(succ);
                 }
             }
         }
+        return transfers;
     }
 
     @Override
-    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        boolean changed = false;
-        do {
-            changed = false;
-            for (Node node : cfg) {
-                if (result.getOutFact(node) == null) result.setOutFact(node, analysis.newInitialFact());
-                for (Node succ : cfg.getSuccsOf(node)) {
-                    analysis.meetInto(result.getInFact(succ), result.getOutFact(node));
-                    changed |= analysis.transferNode(node, result.getInFact(node), result.getOutFact(node));
+    protected int doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        //用于Live Variable Analysis
+        Queue<Node> worklist = newWorkList(cfg, false);
+        for (Node node : cfg) {
+            if (cfg.isExit(node)) continue;
+            worklist.offer(node);
+        }
+
+        int transfers = 0;
+        while (!worklist.isEmpty()) {
+            Node node = worklist.poll();
+            for (Node succ : cfg.getSuccsOf(node)) {
+                analysis.meetInto(result.getInFact(succ), result.getOutFact(node));
+            }
+            ++transfers;
+            if (analysis.transferNode(node, result.getInFact(node), result.getOutFact(node))) {
+                for (Node pred : cfg.getPredsOf(node)) {
+                    worklist.offer(pred);
                 }
             }
-        } while (changed);
+        }
+        return transfers;
     }
 }
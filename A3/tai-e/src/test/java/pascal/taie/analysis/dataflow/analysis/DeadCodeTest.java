@@ -27,11 +27,32 @@ import pascal.taie.analysis.Tests;
 
 public class DeadCodeTest {
 
+    private static final String[] INPUT_CLASSES = {
+            "ControlFlowUnreachable",
+            "UnreachableIfBranch",
+            "UnreachableSwitchBranch",
+            "DeadAssignment",
+            "Loops",
+    };
+
     void testDCD(String inputClass) {
+        testDCD(inputClass, "strongly:false", "edge-refine:false");
+    }
+
+    void testDCD(String inputClass, String livevarOpts, String constpropOpts) {
         Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
                 DeadCodeDetection.ID,
-                "-a", "livevar=strongly:false",
-                "-a", "constprop=edge-refine:false");
+                "-a", "livevar=" + livevarOpts,
+                "-a", "constprop=" + constpropOpts);
+    }
+
+    /**
+     * Runs all test cases with given options.
+     */
+    void testAllDCD(String livevarOpts, String constpropOpts) {
+        for (String inputClass : INPUT_CLASSES) {
+            testDCD(inputClass, livevarOpts, constpropOpts);
+        }
     }
 
     @Test
@@ -58,4 +79,34 @@ public class DeadCodeTest {
     public void testLoops() {
         testDCD("Loops");
     }
+
+    @Test
+    public void testRPO() {
+        testAllDCD("strongly:false;solver:rpo", "edge-refine:false;solver:rpo");
+    }
+
+    @Test
+    public void testSCC() {
+        testAllDCD("strongly:false;solver:scc", "edge-refine:false;solver:scc");
+    }
+
+    @Test
+    public void testSparse() {
+        testAllDCD("strongly:false", "edge-refine:false;sparse:true");
+    }
+
+    @Test
+    public void testConditional() {
+        testAllDCD("strongly:false", "edge-refine:false;conditional:true");
+    }
+
+    @Test
+    public void testParallel() {
+        testAllDCD("strongly:false;parallelism:4", "edge-refine:false;parallelism:4");
+    }
+
+    @Test
+    public void testSequential() {
+        testAllDCD("strongly:false;parallelism:1", "edge-refine:false;parallelism:1");
+    }
 }
@@ -31,6 +31,9 @@ java {
     }
 }
 
+// JMH benchmarks in src/jmh, see ../../jmh/jmh.gradle.kts
+apply(from = "../../jmh/jmh.gradle.kts")
+
 val libDir = project.projectDir.parentFile.parentFile.resolve("lib")
 libDir.listFiles()
     ?.map { it.name }
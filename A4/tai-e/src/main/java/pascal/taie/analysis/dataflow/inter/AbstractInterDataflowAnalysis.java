@@ -22,17 +22,27 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.CompactICFG;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ICFGEdgeVisitor;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.config.Configs;
+
+import java.net.URL;
 
 /**
  * Provides common functionalities for {@link InterDataflowAnalysis} implementations.
@@ -45,10 +55,36 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
         extends ProgramAnalysis
         implements InterDataflowAnalysis<Node, Fact> {
 
+    private static final Logger logger = LogManager.getLogger(AbstractInterDataflowAnalysis.class);
+
     protected ICFG<Method, Node> icfg;
 
     protected InterSolver<Method, Node, Fact> solver;
 
+    private final ICFGEdgeVisitor<Node, Fact, Fact> edgeTransfer =
+            new ICFGEdgeVisitor<>() {
+
+                @Override
+                public Fact visit(NormalEdge<Node> edge, Fact out) {
+                    return transferNormalEdge(edge, out);
+                }
+
+                @Override
+                public Fact visit(CallToReturnEdge<Node> edge, Fact out) {
+                    return transferCallToReturnEdge(edge, out);
+                }
+
+                @Override
+                public Fact visit(CallEdge<Node> edge, Fact callSiteOut) {
+                    return transferCallEdge(edge, callSiteOut);
+                }
+
+                @Override
+                public Fact visit(ReturnEdge<Node> edge, Fact returnOut) {
+                    return transferReturnEdge(edge, returnOut);
+                }
+            };
+
     public AbstractInterDataflowAnalysis(AnalysisConfig config) {
         super(config);
     }
@@ -96,15 +132,7 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
      */
     @Override
     public Fact transferEdge(ICFGEdge<Node> edge, Fact out) {
-        if (edge instanceof NormalEdge) {
-            return transferNormalEdge((NormalEdge<Node>) edge, out);
-        } else if (edge instanceof CallToReturnEdge) {
-            return transferCallToReturnEdge((CallToReturnEdge<Node>) edge, out);
-        } else if (edge instanceof CallEdge) {
-            return transferCallEdge((CallEdge<Node>) edge, out);
-        } else {
-            return transferReturnEdge((ReturnEdge<Node>) edge, out);
-        }
+        return edge.accept(edgeTransfer, out);
     }
 
     // ---------- transfer functions for specific ICFG edges ----------
@@ -119,11 +147,72 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
 
     @Override
     public Object analyze() {
-        icfg = World.get().getResult(ICFGBuilder.ID);
+        icfg = getICFG();
         initialize();
-        solver = new InterSolver<>(this, icfg);
-        DataflowResult<Node, Fact> result = solver.solve();
+        String kind = getOptions().getString("solver");
+        boolean parallel = getOptions().getBooleanOrDefault("parallel", false);
+        boolean lazy = getOptions().getBooleanOrDefault("lazy-icfg", false);
+        DataflowResult<Node, Fact> result;
+        if (kind == null || kind.equals("worklist")) {
+            if (parallel && lazy) {
+                throw new ConfigException(
+                        "Parallel solving does not support lazy ICFG");
+            }
+            solver = new InterSolver<>(this, icfg, parallel, lazy);
+            result = solver.solve();
+        } else if (kind.equals("summary")) {
+            if (parallel) {
+                throw new ConfigException(
+                        "Summary solver does not support parallel solving");
+            }
+            if (lazy) {
+                throw new ConfigException(
+                        "Summary solver does not support lazy ICFG");
+            }
+            result = new SummarySolver<>(this, icfg).solve();
+        } else {
+            throw new ConfigException(
+                    "Unknown inter-procedural data-flow solver: " + kind);
+        }
         finish();
         return result;
     }
+
+    /**
+     * @return the ICFG built by {@link ICFGBuilder}, or a {@link CompactICFG}
+     * ({@link LazyICFG}) built from the call graph if option compact-icfg
+     * (lazy-icfg) is set.
+     */
+    @SuppressWarnings("unchecked")
+    private ICFG<Method, Node> getICFG() {
+        boolean compact = getOptions().getBooleanOrDefault("compact-icfg", false);
+        boolean lazy = getOptions().getBooleanOrDefault("lazy-icfg", false);
+        if (compact && lazy) {
+            throw new ConfigException(
+                    "Options compact-icfg and lazy-icfg are exclusive");
+        }
+        if (compact || lazy) {
+            checkAnalysisConfig();
+            ICFG<?, ?> graph = compact
+                    ? new CompactICFG(World.get().getResult(CallGraphBuilder.ID))
+                    : new LazyICFG(World.get().getResult(CallGraphBuilder.ID));
+            return (ICFG<Method, Node>) graph;
+        }
+        return World.get().getResult(ICFGBuilder.ID);
+    }
+
+    /**
+     * Options compact-icfg and lazy-icfg drop the requirement of icfg only
+     * in tai-e-analyses.yml of this assignment, which shadows the one in
+     * tai-e-assignment.jar. Warns if the latter is read instead, e.g., when
+     * the jar comes first on the class path, as icfg is then built anyway.
+     */
+    private static void checkAnalysisConfig() {
+        URL url = Configs.getAnalysisConfigURL();
+        if (url != null && url.getProtocol().equals("jar")) {
+            logger.warn("Analysis configurations are read from {}, instead of" +
+                    " src/main/resources/tai-e-analyses.yml, thus icfg is" +
+                    " built although option compact-icfg or lazy-icfg is set", url);
+        }
+    }
 }
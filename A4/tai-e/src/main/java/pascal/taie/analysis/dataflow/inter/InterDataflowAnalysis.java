@@ -71,4 +71,20 @@ public interface InterDataflowAnalysis<Node, Fact> {
      * @return the result of edge transfer function.
      */
     Fact transferEdge(ICFGEdge<Node> edge, Fact out);
+
+    /**
+     * Decides whether control may flow along an edge, e.g., an analysis
+     * may find a branch of an if infeasible as its condition is constant.
+     * The solvers do not propagate facts along infeasible edges, thus
+     * the nodes which are only reachable along such edges are not
+     * reached (see {@link InterSolver} for lazy mode).
+     * By default, all edges are feasible.
+     *
+     * @param edge the ICFG edge.
+     * @param out  the OUT fact of source node of the edge.
+     * @return true if control may flow along the edge, otherwise false.
+     */
+    default boolean isFeasible(ICFGEdge<Node> edge, Fact out) {
+        return true;
+    }
 }
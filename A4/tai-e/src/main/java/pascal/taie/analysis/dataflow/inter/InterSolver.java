@@ -23,17 +23,75 @@
 package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
 import pascal.taie.analysis.graph.icfg.ICFG;
-import pascal.taie.util.collection.SetQueue;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.SimpleGraph;
+import pascal.taie.util.graph.TopoSorter;
 
-import java.util.Queue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
  * Solver for inter-procedural data-flow analysis.
  * The workload of inter-procedural analysis is heavy, thus we always
  * adopt work-list algorithm for efficiency.
+ * <p>
+ * The work-list has two levels. The outer level holds the methods which
+ * have nodes to be transferred, and polls them in reverse topological
+ * order of the strongly connected components (SCCs) of the call graph,
+ * i.e., callees before their callers. The inner level holds the nodes
+ * of each method, and polls them in reverse postorder of the method.
+ * A method is processed until its nodes converge, before the solver
+ * moves to another method.
+ * <p>
+ * In parallel mode, the SCCs are processed by tasks on the common
+ * {@link ForkJoinPool}, see {@link Scheduler}. At most one task processes
+ * an SCC at any time, thus the facts of its nodes need no locking, except
+ * the OUT facts of call sites and exits, which are read by the tasks of
+ * other SCCs along call and return edges. The transfer functions of the
+ * analysis must be thread-safe.
+ * <p>
+ * In lazy mode, the solver does not traverse the whole ICFG beforehand.
+ * A method is discovered when its entry is first reached, i.e., when a
+ * call site calling it is first transferred, and only then are its nodes
+ * queried from the ICFG (which may build them on demand, see
+ * {@link pascal.taie.analysis.graph.icfg.LazyICFG}). As the call graph
+ * is not known in advance, the methods are indexed in order of discovery
+ * and polled from the most recently discovered one, which approximates
+ * callees before their callers. The nodes of a method are those which
+ * are connected, along the edges inside the method, with its entry or
+ * its exit. Only the entry of a discovered method, and its nodes which
+ * are unreachable from the entry, are added to the work-list; the other
+ * nodes are added by their predecessors, which add their successors
+ * when they are first transferred or their OUT facts change, along the
+ * edges which are feasible (see {@link InterDataflowAnalysis#isFeasible}).
+ * Thus, the nodes which are only reached along infeasible edges keep
+ * initial facts, and the callees of the call sites among them are neither
+ * discovered, nor built by a lazy ICFG. The methods which are not
+ * discovered have no facts in the result.
  */
 class InterSolver<Method, Node, Fact> {
 
@@ -41,14 +99,89 @@ class InterSolver<Method, Node, Fact> {
 
     private final ICFG<Method, Node> icfg;
 
+    private final boolean parallel;
+
+    private final boolean lazy;
+
     private DataflowResult<Node, Fact> result;
 
-    private Queue<Node> workList;
+    /**
+     * Index of each method in reverse topological order of the SCCs
+     * of the call graph, or in order of discovery in lazy mode.
+     */
+    private final Map<Method, Integer> methodIndexes = Maps.newMap();
+
+    /**
+     * Nodes of each method in reverse postorder, where the nodes
+     * unreachable from the entry of the method come last.
+     */
+    private final List<List<Node>> nodesOf = new ArrayList<>();
+
+    /**
+     * Position of each node in {@link #nodesOf} of its method.
+     */
+    private final Map<Node, Integer> nodeIndexes = Maps.newMap();
+
+    /**
+     * Indexes of the methods which have nodes in the work-list.
+     */
+    private final BitSet pendingMethods = new BitSet();
+
+    /**
+     * Positions of the nodes in the work-list, for each method.
+     */
+    private final List<BitSet> pendingNodes = new ArrayList<>();
+
+    /**
+     * Positions of the nodes which have been transferred, for each
+     * method. Only used in lazy mode.
+     */
+    private final List<BitSet> transferredNodes = new ArrayList<>();
+
+    /**
+     * Entry nodes of the entry methods, which hold boundary facts.
+     */
+    private Set<Node> entryNodes;
+
+    /**
+     * Start index of the methods of each SCC, followed by the number of
+     * methods. The methods of an SCC have consecutive indexes.
+     * Only computed in parallel mode, as are the fields below.
+     */
+    private int[] sccStarts;
+
+    /**
+     * Index of the SCC of each method.
+     */
+    private int[] methodSCCs;
+
+    /**
+     * Indexes of the caller SCCs of each SCC.
+     */
+    private int[][] sccCallers;
+
+    /**
+     * Number of callee SCCs of each SCC.
+     */
+    private int[] sccCalleeCounts;
+
+    /**
+     * Exits of the methods, whose OUT facts are read along return edges.
+     */
+    private Set<Node> exits;
+
+    /**
+     * The scheduler of parallel solving, when it is running.
+     */
+    private Scheduler scheduler;
 
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
-                ICFG<Method, Node> icfg) {
+                ICFG<Method, Node> icfg, boolean parallel, boolean lazy) {
+        assert !(parallel && lazy);
         this.analysis = analysis;
         this.icfg = icfg;
+        this.parallel = parallel;
+        this.lazy = lazy;
     }
 
     DataflowResult<Node, Fact> solve() {
@@ -59,10 +192,566 @@ class InterSolver<Method, Node, Fact> {
     }
 
     private void initialize() {
-        // TODO - finish me
+        entryNodes = icfg.entryMethods()
+                .map(icfg::getEntryOf)
+                .collect(Collectors.toSet());
+        if (lazy) {
+            icfg.entryMethods().forEach(this::discover);
+        } else {
+            computeOrder();
+            for (Node node : icfg) {
+                initializeFacts(node);
+            }
+        }
+    }
+
+    private void initializeFacts(Node node) {
+        result.setInFact(node, analysis.newInitialFact());
+        if (entryNodes.contains(node)) {
+            result.setOutFact(node, analysis.newBoundaryFact(node));
+        } else {
+            result.setOutFact(node, analysis.newInitialFact());
+            addToWorkList(node);
+        }
     }
 
     private void doSolve() {
-        // TODO - finish me
+        if (parallel) {
+            scheduler = new Scheduler();
+            scheduler.run();
+            scheduler = null;
+        } else if (lazy) {
+            for (int m = pendingMethods.length() - 1; m >= 0;
+                 m = pendingMethods.length() - 1) {
+                solveMethod(m);
+            }
+        } else {
+            solveMethods(0, nodesOf.size());
+        }
+    }
+
+    /**
+     * Processes the methods whose indexes are in [from, to), until
+     * none of their nodes is in the work-list.
+     */
+    private void solveMethods(int from, int to) {
+        for (int m = nextPendingMethod(from, to); m >= 0;
+             m = nextPendingMethod(from, to)) {
+            solveMethod(m);
+        }
+    }
+
+    /**
+     * Processes the method of index {@code m}, until none of its nodes
+     * is in the work-list.
+     */
+    private void solveMethod(int m) {
+        List<Node> nodes = nodesOf.get(m);
+        BitSet pending = pendingNodes.get(m);
+        for (int i = pollPendingNode(m); i >= 0; i = pollPendingNode(m)) {
+            Node node = nodes.get(i);
+            Fact in = result.getInFact(node);
+            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                Fact out = result.getOutFact(edge.getSource());
+                // in lazy mode, the source may be in a method which has
+                // not been discovered, and holds no facts yet
+                if (out == null) {
+                    continue;
+                }
+                if (parallel && !isLocalEdge(edge)) {
+                    // the source may be transferred by the task of
+                    // another SCC at the same time
+                    synchronized (out) {
+                        meetAlong(edge, out, in);
+                    }
+                } else {
+                    meetAlong(edge, out, in);
+                }
+            }
+            Fact out = result.getOutFact(node);
+            boolean changed;
+            if (parallel && (icfg.isCallSite(node) || exits.contains(node))) {
+                synchronized (out) {
+                    changed = analysis.transferNode(node, in, out);
+                }
+            } else {
+                changed = analysis.transferNode(node, in, out);
+            }
+            // in lazy mode, the successors are also added when the node
+            // is first transferred, as they are not in the work-list yet
+            if (lazy && !transferredNodes.get(m).get(i)) {
+                transferredNodes.get(m).set(i);
+                changed = true;
+            }
+            if (changed) {
+                addSuccessors(node, out);
+            }
+        }
+    }
+
+    private void meetAlong(ICFGEdge<Node> edge, Fact out, Fact in) {
+        if (analysis.isFeasible(edge, out)) {
+            analysis.meetInto(analysis.transferEdge(edge, out), in);
+        }
+    }
+
+    /**
+     * Adds the successors of a node to the work-list, along the edges
+     * which are feasible under its OUT fact. In lazy mode, this queries
+     * the call edges of a call site, and discovers its callees.
+     */
+    private void addSuccessors(Node node, Fact out) {
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+            if (!analysis.isFeasible(edge, out)) {
+                continue;
+            }
+            Node succ = edge.getTarget();
+            if (isLocalEdge(edge)) {
+                BitSet pending = pendingNodes.get(
+                        methodIndexes.get(icfg.getContainingMethodOf(node)));
+                synchronized (pending) {
+                    pending.set(nodeIndexes.get(succ));
+                }
+            } else {
+                addToWorkList(succ);
+            }
+        }
+    }
+
+    /**
+     * Removes the first node of the method of index {@code m} from
+     * the work-list. If there is none, the method is removed from
+     * the work-list, under the same lock as {@link #addToWorkList(Node)}
+     * adds it, so that no node is lost in parallel mode.
+     *
+     * @return the position of the removed node, or -1 if there is none.
+     */
+    private int pollPendingNode(int m) {
+        BitSet pending = pendingNodes.get(m);
+        synchronized (pending) {
+            int i = pending.nextSetBit(0);
+            if (i >= 0) {
+                pending.clear(i);
+            } else {
+                synchronized (pendingMethods) {
+                    pendingMethods.clear(m);
+                }
+            }
+            return i;
+        }
+    }
+
+    /**
+     * Discovers a method in lazy mode: indexes it and its nodes, and adds
+     * its entry, and its nodes unreachable from the entry, to the work-list.
+     * The entry of an entry method holds the boundary fact, thus it is not
+     * transferred, and its successors are added instead.
+     */
+    private void discover(Method method) {
+        Node entry = icfg.getEntryOf(method);
+        Set<Node> reachable = searchLocally(entry);
+        addMethod(method, collectNodes(method, reachable));
+        int m = nodesOf.size() - 1;
+        transferredNodes.add(new BitSet());
+        for (Node node : nodesOf.get(m)) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, entryNodes.contains(node)
+                    ? analysis.newBoundaryFact(node)
+                    : analysis.newInitialFact());
+        }
+        // the nodes reachable from the entry come first in nodesOf
+        BitSet pending = pendingNodes.get(m);
+        pending.set(reachable.size(), nodesOf.get(m).size());
+        if (entryNodes.contains(entry)) {
+            transferredNodes.get(m).set(0);
+            addSuccessors(entry, result.getOutFact(entry));
+        } else {
+            pending.set(0);
+        }
+        pendingMethods.set(m);
+    }
+
+    /**
+     * @return the nodes reachable from given node, searched along
+     * the edges inside its method.
+     */
+    private Set<Node> searchLocally(Node node) {
+        Set<Node> nodes = Sets.newSet();
+        Deque<Node> stack = new ArrayDeque<>();
+        nodes.add(node);
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            for (Node succ : getLocalSuccsOf(stack.pop())) {
+                if (nodes.add(succ)) {
+                    stack.push(succ);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * @return the nodes of given method which are connected with its entry
+     * or exit, searched along the edges inside the method, given the nodes
+     * reachable from its entry.
+     */
+    private Set<Node> collectNodes(Method method, Set<Node> reachable) {
+        Set<Node> nodes = Sets.newSet();
+        nodes.addAll(reachable);
+        Deque<Node> stack = new ArrayDeque<>();
+        // search backwards for the nodes unreachable from the entry,
+        // e.g., exception handlers without exceptional edges
+        Node exit = icfg.getExitOf(method);
+        nodes.add(exit);
+        stack.addAll(nodes);
+        while (!stack.isEmpty()) {
+            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(stack.pop())) {
+                if (isLocalEdge(edge) && nodes.add(edge.getSource())) {
+                    stack.push(edge.getSource());
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private int nextPendingMethod(int from, int to) {
+        synchronized (pendingMethods) {
+            int m = pendingMethods.nextSetBit(from);
+            return m < to ? m : -1;
+        }
+    }
+
+    /**
+     * Adds a node to the work-list. In parallel mode, this may be called
+     * by the tasks of different SCCs for the same method, e.g., when two
+     * callees return to the same caller, thus the work-list is locked,
+     * and the SCC of the method is processed again if it is done.
+     */
+    private void addToWorkList(Node node) {
+        Method method = icfg.getContainingMethodOf(node);
+        Integer index = methodIndexes.get(method);
+        if (index == null) {
+            // in lazy mode, the entry of a method may be reached
+            // through a call site which has been transferred before
+            discover(method);
+            return;
+        }
+        int m = index;
+        BitSet pending = pendingNodes.get(m);
+        synchronized (pending) {
+            pending.set(nodeIndexes.get(node));
+            synchronized (pendingMethods) {
+                pendingMethods.set(m);
+            }
+        }
+        if (scheduler != null) {
+            scheduler.reschedule(methodSCCs[m]);
+        }
+    }
+
+    /**
+     * Schedules the tasks of parallel solving. An SCC is started once
+     * all its callee SCCs have been processed, so that the SCCs which do
+     * not depend on each other are solved concurrently. A task is
+     * submitted for an SCC only if its methods have nodes in the
+     * work-list; otherwise the SCC is done at once. When a task adds
+     * nodes to an SCC which is done, e.g., the entry of a callee through
+     * a call edge, or a return site of a caller whose callee's return
+     * value changed, the SCC is processed again by a new task right away,
+     * thus the facts flow across SCCs until the fixed point is reached.
+     */
+    private class Scheduler {
+
+        // states of SCCs
+        private static final int WAITING = 0;
+
+        private static final int RUNNING = 1;
+
+        private static final int DONE = 2;
+
+        private final AtomicIntegerArray states;
+
+        private final AtomicInteger[] waitingCallees;
+
+        /**
+         * Whether each SCC has released its callers, which is done when
+         * it is done for the first time. An element is only accessed by
+         * the thread processing the SCC.
+         */
+        private final boolean[] released;
+
+        /**
+         * Number of SCCs which are not done.
+         */
+        private final AtomicInteger unfinished;
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private Scheduler() {
+            int nSCCs = sccCalleeCounts.length;
+            states = new AtomicIntegerArray(nSCCs);
+            waitingCallees = new AtomicInteger[nSCCs];
+            for (int i = 0; i < nSCCs; ++i) {
+                waitingCallees[i] = new AtomicInteger(sccCalleeCounts[i]);
+            }
+            released = new boolean[nSCCs];
+            unfinished = new AtomicInteger(nSCCs);
+        }
+
+        private void run() {
+            if (sccCalleeCounts.length == 0) {
+                return;
+            }
+            for (int i = 0; i < sccCalleeCounts.length; ++i) {
+                if (sccCalleeCounts[i] == 0) {
+                    start(i);
+                }
+            }
+            try {
+                finished.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AnalysisException(e);
+            }
+            Throwable e = failure.get();
+            if (e != null) {
+                throw new AnalysisException(
+                        "Failed to solve inter-procedural data-flow analysis", e);
+            }
+            assert pendingMethods.isEmpty();
+        }
+
+        /**
+         * Starts an SCC whose callee SCCs have all been processed.
+         */
+        private void start(int scc) {
+            states.set(scc, RUNNING);
+            if (hasPendingNodes(scc)) {
+                submit(scc);
+            } else {
+                finish(scc);
+            }
+        }
+
+        /**
+         * Processes an SCC again if it is done, after nodes have been
+         * added to it.
+         */
+        private void reschedule(int scc) {
+            // the caller is in the task of a running SCC, which keeps
+            // unfinished above 0 until this SCC is counted again
+            if (states.compareAndSet(scc, DONE, RUNNING)) {
+                unfinished.incrementAndGet();
+                submit(scc);
+            }
+        }
+
+        private void submit(int scc) {
+            ForkJoinPool.commonPool().execute(() -> process(scc));
+        }
+
+        private void process(int scc) {
+            try {
+                if (failure.get() == null) {
+                    solveMethods(sccStarts[scc], sccStarts[scc + 1]);
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                finish(scc);
+            }
+        }
+
+        /**
+         * Marks an SCC done, and starts the callers which are waiting for
+         * it only. The SCC is processed again instead, if nodes have been
+         * added to it after its task saw none. The callers which have
+         * nothing to process are done in the same loop, rather than
+         * recursively, as they may form long chains.
+         */
+        private void finish(int scc) {
+            Deque<Integer> sccs = new ArrayDeque<>();
+            sccs.push(scc);
+            while (!sccs.isEmpty()) {
+                int s = sccs.pop();
+                if (!released[s]) {
+                    released[s] = true;
+                    for (int caller : sccCallers[s]) {
+                        if (waitingCallees[caller].decrementAndGet() == 0) {
+                            states.set(caller, RUNNING);
+                            if (hasPendingNodes(caller)) {
+                                submit(caller);
+                            } else {
+                                sccs.push(caller);
+                            }
+                        }
+                    }
+                }
+                states.set(s, DONE);
+                // callers are still released after a failure, so that
+                // the solving terminates, but no SCC is processed again
+                if (failure.get() == null && hasPendingNodes(s)
+                        && states.compareAndSet(s, DONE, RUNNING)) {
+                    submit(s);
+                } else if (unfinished.decrementAndGet() == 0) {
+                    finished.countDown();
+                }
+            }
+        }
+
+        private boolean hasPendingNodes(int scc) {
+            return nextPendingMethod(sccStarts[scc], sccStarts[scc + 1]) >= 0;
+        }
+    }
+
+    /**
+     * Computes the order of the methods and of the nodes in each method.
+     */
+    private void computeOrder() {
+        SimpleGraph<Method> callGraph = new SimpleGraph<>();
+        MultiMap<Method, Node> nodes = Maps.newMultiMap();
+        for (Node node : icfg) {
+            Method method = icfg.getContainingMethodOf(node);
+            callGraph.addNode(method);
+            nodes.put(method, node);
+        }
+        for (Node node : icfg) {
+            if (icfg.isCallSite(node)) {
+                for (Method callee : icfg.getCalleesOf(node)) {
+                    // callees without nodes, e.g., abstract methods,
+                    // are not in the ICFG
+                    if (callGraph.hasNode(callee)) {
+                        callGraph.addEdge(icfg.getContainingMethodOf(node), callee);
+                    }
+                }
+            }
+        }
+        MergedSCCGraph<Method> sccGraph = new MergedSCCGraph<>(callGraph);
+        List<MergedNode<Method>> sccs = new TopoSorter<>(sccGraph, true).get();
+        if (parallel) {
+            computeSCCDependencies(sccGraph, sccs);
+            exits = Sets.newSet(callGraph.getNumberOfNodes());
+            callGraph.forEach(method -> exits.add(icfg.getExitOf(method)));
+        }
+        for (MergedNode<Method> scc : sccs) {
+            for (Method method : scc.getNodes()) {
+                addMethod(method, nodes.get(method));
+            }
+        }
+    }
+
+    /**
+     * Indexes a method and its nodes.
+     */
+    private void addMethod(Method method, Collection<Node> nodes) {
+        methodIndexes.put(method, nodesOf.size());
+        List<Node> order = computeReversePostorder(icfg.getEntryOf(method), nodes);
+        for (int i = 0; i < order.size(); ++i) {
+            nodeIndexes.put(order.get(i), i);
+        }
+        nodesOf.add(order);
+        pendingNodes.add(new BitSet(order.size()));
+    }
+
+    private void computeSCCDependencies(MergedSCCGraph<Method> sccGraph,
+                                        List<MergedNode<Method>> sccs) {
+        Map<MergedNode<Method>, Integer> sccIndexes = Maps.newMap(sccs.size());
+        sccStarts = new int[sccs.size() + 1];
+        sccCallers = new int[sccs.size()][];
+        sccCalleeCounts = new int[sccs.size()];
+        for (int i = 0; i < sccs.size(); ++i) {
+            sccIndexes.put(sccs.get(i), i);
+            sccStarts[i + 1] = sccStarts[i] + sccs.get(i).getNodes().size();
+        }
+        methodSCCs = new int[sccStarts[sccs.size()]];
+        for (int i = 0; i < sccs.size(); ++i) {
+            Arrays.fill(methodSCCs, sccStarts[i], sccStarts[i + 1], i);
+        }
+        for (int i = 0; i < sccs.size(); ++i) {
+            MergedNode<Method> scc = sccs.get(i);
+            sccCallers[i] = sccGraph.getPredsOf(scc)
+                    .stream()
+                    .filter(caller -> !caller.equals(scc))
+                    .mapToInt(sccIndexes::get)
+                    .toArray();
+            sccCalleeCounts[i] = (int) sccGraph.getSuccsOf(scc)
+                    .stream()
+                    .filter(callee -> !callee.equals(scc))
+                    .count();
+        }
+    }
+
+    /**
+     * Computes reverse postorder of given nodes of a method, by depth-first
+     * search along the edges inside the method from the entry. The nodes
+     * which are unreachable from the entry are then searched and placed
+     * after the reachable ones, so that the result contains every node.
+     */
+    private List<Node> computeReversePostorder(Node entry, Collection<Node> nodes) {
+        Set<Node> visited = Sets.newSet(nodes.size());
+        List<Node> order = computePostorder(entry, visited);
+        Collections.reverse(order);
+        for (Node node : nodes) {
+            if (!visited.contains(node)) {
+                List<Node> postorder = computePostorder(node, visited);
+                Collections.reverse(postorder);
+                order.addAll(postorder);
+            }
+        }
+        return order;
+    }
+
+    private List<Node> computePostorder(Node root, Set<Node> visited) {
+        List<Node> postorder = new ArrayList<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        Deque<Iterator<Node>> succs = new ArrayDeque<>();
+        visited.add(root);
+        stack.push(root);
+        succs.push(getLocalSuccsOf(root).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<Node> iter = succs.peek();
+            Node next = null;
+            while (next == null && iter.hasNext()) {
+                Node succ = iter.next();
+                if (visited.add(succ)) {
+                    next = succ;
+                }
+            }
+            if (next != null) {
+                stack.push(next);
+                succs.push(getLocalSuccsOf(next).iterator());
+            } else {
+                postorder.add(stack.pop());
+                succs.pop();
+            }
+        }
+        return postorder;
+    }
+
+    /**
+     * @return the successors of given node inside its method. The return
+     * sites of a call site are obtained without querying its call edges,
+     * so that a lazy ICFG does not resolve the call site.
+     */
+    private Collection<Node> getLocalSuccsOf(Node node) {
+        if (icfg.isCallSite(node)) {
+            return icfg.getReturnSitesOf(node);
+        }
+        List<Node> succs = new ArrayList<>();
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+            if (isLocalEdge(edge)) {
+                succs.add(edge.getTarget());
+            }
+        }
+        return succs;
+    }
+
+    /**
+     * @return true if given edge connects two nodes of the same method.
+     */
+    static boolean isLocalEdge(ICFGEdge<?> edge) {
+        return edge instanceof NormalEdge || edge instanceof CallToReturnEdge;
     }
 }
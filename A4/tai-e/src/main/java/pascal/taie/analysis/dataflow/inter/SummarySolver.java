@@ -0,0 +1,398 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Summary-based solver for inter-procedural data-flow analysis.
+ * <p>
+ * Instead of propagating facts through the callees along call and return
+ * edges, this solver analyzes a method separately for each distinct fact
+ * flowing into its entry (i.e., the input of the method, which holds the
+ * values of its parameters), and takes the fact at its exit as the summary
+ * of the method for that input. A call site looks up the summaries of its
+ * callees for the inputs it passes, thus a method which is called with
+ * the same input from many call sites is analyzed only once, and it is
+ * re-analyzed only when a new input flows into it, or the summaries of
+ * its own callees change.
+ * <p>
+ * To ensure termination, at most {@link #MAX_INPUTS} inputs of a method
+ * are analyzed separately, and further inputs are merged into one input.
+ * The facts of a node in the result are the meet of the facts under
+ * all inputs of its containing method. As the values returned to a call
+ * site come from the summaries for the inputs it passes, the result may
+ * be more precise than the one of {@link InterSolver}.
+ */
+class SummarySolver<Method, Node, Fact> {
+
+    private static final Logger logger = LogManager.getLogger(SummarySolver.class);
+
+    /**
+     * Maximum number of inputs which are analyzed separately for a method.
+     */
+    private static final int MAX_INPUTS = 8;
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final MultiMap<Method, Node> nodesOf = Maps.newMultiMap();
+
+    /**
+     * Nodes to be transferred in the first analysis of each method,
+     * i.e., its entry node and the nodes unreachable from the entry.
+     */
+    private final Map<Method, List<Node>> initialNodes = Maps.newMap();
+
+    /**
+     * Summaries of the inputs which are analyzed separately.
+     */
+    private final Map<Method, Map<Fact, Summary>> summaries = Maps.newMap();
+
+    /**
+     * Summaries of the merged inputs.
+     */
+    private final Map<Method, Summary> mergedSummaries = Maps.newMap();
+
+    /**
+     * Summaries to be analyzed. The last added one is analyzed first,
+     * so that the callees are analyzed before their callers resume.
+     */
+    private final Deque<Summary> workList = new ArrayDeque<>();
+
+    private int transfers = 0;
+
+    SummarySolver(InterDataflowAnalysis<Node, Fact> analysis,
+                  ICFG<Method, Node> icfg) {
+        this.analysis = analysis;
+        this.icfg = icfg;
+    }
+
+    DataflowResult<Node, Fact> solve() {
+        initialize();
+        doSolve();
+        return collectResult();
+    }
+
+    private void initialize() {
+        for (Node node : icfg) {
+            nodesOf.put(icfg.getContainingMethodOf(node), node);
+        }
+        icfg.entryMethods().forEach(method -> getOrCreateSummary(method,
+                analysis.newBoundaryFact(icfg.getEntryOf(method))));
+    }
+
+    private void doSolve() {
+        while (!workList.isEmpty()) {
+            Summary summary = workList.pop();
+            summary.queued = false;
+            boolean first = !summary.analyzed;
+            if (analyze(summary) || first) {
+                // the callers waiting for the first analysis of
+                // the summary resume even if the exit fact is unchanged
+                summary.dependents.forEach((caller, returnSite) -> {
+                    caller.pendingNodes.add(returnSite);
+                    addToWorkList(caller);
+                });
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} summaries of {} methods, {} node transfers",
+                    summaries.values().stream().mapToInt(Map::size).sum()
+                            + mergedSummaries.size(),
+                    summaries.size(), transfers);
+        }
+    }
+
+    private void addToWorkList(Summary summary) {
+        if (!summary.queued) {
+            summary.queued = true;
+            workList.push(summary);
+        }
+    }
+
+    /**
+     * Analyzes the method of given summary under its input, until
+     * the facts of the method reach a fixed point. A return site is not
+     * transferred until all its callees have been analyzed under
+     * the inputs passed by the call site, thus the nodes after it are
+     * not analyzed with incomplete facts, which would make the callees
+     * after it be analyzed under needless inputs.
+     *
+     * @return true if the summary (i.e., the fact at the exit) changed.
+     */
+    private boolean analyze(Summary summary) {
+        Node entry = icfg.getEntryOf(summary.method);
+        Node exit = icfg.getExitOf(summary.method);
+        boolean changed = false;
+        while (!summary.pendingNodes.isEmpty()) {
+            Node node = summary.pendingNodes.poll();
+            Fact in = summary.getInFact(node);
+            if (node.equals(entry)) {
+                analysis.meetInto(summary.input, in);
+            }
+            boolean ready = true;
+            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                if (edge instanceof ReturnEdge<Node> returnEdge) {
+                    // the callees of a call site are not analyzed until
+                    // the call site is reached
+                    if (!summary.transferred.contains(returnEdge.getCallSite())) {
+                        continue;
+                    }
+                    Summary callee = getCalleeSummary(summary, returnEdge);
+                    if (callee == null) {
+                        continue;
+                    }
+                    if (callee.analyzed) {
+                        Fact returnOut = callee.getOutFact(edge.getSource());
+                        meetAlong(edge, returnOut, in);
+                    } else {
+                        ready = false;
+                    }
+                } else if (InterSolver.isLocalEdge(edge)) {
+                    // facts along call edges are the input of the summary
+                    meetAlong(edge, summary.getOutFact(edge.getSource()), in);
+                }
+            }
+            if (!ready) {
+                // transferred again after the callee is analyzed
+                continue;
+            }
+            ++transfers;
+            // successors of a node are analyzed after it is transferred
+            // for the first time, even if its OUT fact is unchanged
+            Fact out = summary.getOutFact(node);
+            if (analysis.transferNode(node, in, out)
+                    | summary.transferred.add(node)) {
+                for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                    if (InterSolver.isLocalEdge(edge) &&
+                            analysis.isFeasible(edge, out)) {
+                        summary.pendingNodes.add(edge.getTarget());
+                    }
+                }
+                changed |= node.equals(exit);
+            }
+        }
+        summary.analyzed = true;
+        return changed;
+    }
+
+    private void meetAlong(ICFGEdge<Node> edge, Fact out, Fact in) {
+        if (analysis.isFeasible(edge, out)) {
+            analysis.meetInto(analysis.transferEdge(edge, out), in);
+        }
+    }
+
+    /**
+     * @return the summary of the callee of given return edge for the input
+     * passed by the call site. The caller is registered as a dependent of
+     * the summary, so that the return site is transferred again when
+     * the summary changes.
+     *
+     * @return null if the call edge from the call site to the callee
+     * is infeasible.
+     */
+    private Summary getCalleeSummary(Summary caller, ReturnEdge<Node> returnEdge) {
+        Node callSite = returnEdge.getCallSite();
+        Method callee = icfg.getContainingMethodOf(returnEdge.getSource());
+        Node calleeEntry = icfg.getEntryOf(callee);
+        Fact input = null;
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+            if (edge instanceof CallEdge && edge.getTarget().equals(calleeEntry)) {
+                Fact out = caller.getOutFact(callSite);
+                if (!analysis.isFeasible(edge, out)) {
+                    return null;
+                }
+                input = analysis.transferEdge(edge, out);
+                break;
+            }
+        }
+        Summary summary = getOrCreateSummary(callee, input);
+        summary.dependents.put(caller, returnEdge.getTarget());
+        return summary;
+    }
+
+    /**
+     * @return the nodes of given method, which are transferred in its
+     * first analysis under an input.
+     */
+    private List<Node> getInitialNodes(Method method) {
+        return initialNodes.computeIfAbsent(method, m -> {
+            // find the nodes which are unreachable from the entry
+            // inside the method
+            Node entry = icfg.getEntryOf(m);
+            Set<Node> reached = Sets.newSet();
+            Deque<Node> stack = new ArrayDeque<>();
+            reached.add(entry);
+            stack.push(entry);
+            while (!stack.isEmpty()) {
+                for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(stack.pop())) {
+                    if (InterSolver.isLocalEdge(edge) &&
+                            reached.add(edge.getTarget())) {
+                        stack.push(edge.getTarget());
+                    }
+                }
+            }
+            List<Node> nodes = new ArrayList<>();
+            nodes.add(entry);
+            for (Node node : nodesOf.get(m)) {
+                if (!reached.contains(node)) {
+                    nodes.add(node);
+                }
+            }
+            return nodes;
+        });
+    }
+
+    private Summary getOrCreateSummary(Method method, Fact input) {
+        Map<Fact, Summary> inputs = summaries.computeIfAbsent(method,
+                unused -> Maps.newMap());
+        Summary summary = inputs.get(input);
+        if (summary == null) {
+            if (inputs.size() < MAX_INPUTS) {
+                summary = new Summary(method, copyOf(input));
+                inputs.put(summary.input, summary);
+                addToWorkList(summary);
+            } else {
+                summary = mergedSummaries.computeIfAbsent(method, m -> {
+                    Summary merged = new Summary(m, analysis.newInitialFact());
+                    addToWorkList(merged);
+                    return merged;
+                });
+                Fact oldInput = copyOf(summary.input);
+                analysis.meetInto(input, summary.input);
+                if (!summary.input.equals(oldInput)) {
+                    summary.pendingNodes.add(icfg.getEntryOf(method));
+                    addToWorkList(summary);
+                }
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * @return a copy of given fact, obtained by meeting it into
+     * a new initial fact.
+     */
+    private Fact copyOf(Fact fact) {
+        Fact copy = analysis.newInitialFact();
+        analysis.meetInto(fact, copy);
+        return copy;
+    }
+
+    private DataflowResult<Node, Fact> collectResult() {
+        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        for (Node node : icfg) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+        summaries.values().forEach(inputs ->
+                inputs.values().forEach(summary -> summary.mergeInto(result)));
+        mergedSummaries.values().forEach(summary -> summary.mergeInto(result));
+        return result;
+    }
+
+    /**
+     * Facts of a method under one input.
+     */
+    private class Summary {
+
+        private final Method method;
+
+        /**
+         * The fact flowing into the entry of the method. It changes only
+         * if this summary is for the merged inputs.
+         */
+        private final Fact input;
+
+        private final Map<Node, Fact> inFacts = Maps.newMap();
+
+        private final Map<Node, Fact> outFacts = Maps.newMap();
+
+        /**
+         * Nodes which have been transferred under this input.
+         */
+        private final Set<Node> transferred = Sets.newSet();
+
+        /**
+         * Nodes to be transferred in next analysis of this summary.
+         */
+        private final Queue<Node> pendingNodes = new SetQueue<>();
+
+        /**
+         * Summaries of the callers which use this summary,
+         * together with the return sites where it is used.
+         */
+        private final MultiMap<Summary, Node> dependents = Maps.newMultiMap();
+
+        /**
+         * Whether this summary has been analyzed at least once.
+         */
+        private boolean analyzed = false;
+
+        /**
+         * Whether this summary is in the work-list.
+         */
+        private boolean queued = false;
+
+        private Summary(Method method, Fact input) {
+            this.method = method;
+            this.input = input;
+            pendingNodes.addAll(getInitialNodes(method));
+        }
+
+        private Fact getInFact(Node node) {
+            return inFacts.computeIfAbsent(node, unused -> analysis.newInitialFact());
+        }
+
+        private Fact getOutFact(Node node) {
+            return outFacts.computeIfAbsent(node, unused -> analysis.newInitialFact());
+        }
+
+        private void mergeInto(DataflowResult<Node, Fact> result) {
+            inFacts.forEach((node, fact) ->
+                    analysis.meetInto(fact, result.getInFact(node)));
+            outFacts.forEach((node, fact) ->
+                    analysis.meetInto(fact, result.getOutFact(node)));
+        }
+    }
+}
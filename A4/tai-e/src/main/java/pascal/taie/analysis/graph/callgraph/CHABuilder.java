@@ -26,11 +26,16 @@ import pascal.taie.World;
 import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassHierarchyImpl;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 
@@ -39,37 +44,199 @@ import java.util.Set;
  */
 class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
+    /**
+     * Whether resolve call sites of different methods in parallel.
+     */
+    private final boolean parallel;
+
+    /**
+     * Whether resolve call sites on demand, instead of building
+     * the whole call graph eagerly.
+     */
+    private final boolean lazy;
+
+    /**
+     * Statistics of call graph construction, or null if not collected.
+     */
+    @Nullable
+    private final CallGraphStatistics statistics;
+
     private ClassHierarchy hierarchy;
 
+    CHABuilder(boolean parallel, boolean lazy,
+               @Nullable CallGraphStatistics statistics) {
+        this.parallel = parallel;
+        this.lazy = lazy;
+        this.statistics = statistics;
+    }
+
     @Override
     public CallGraph<Invoke, JMethod> build() {
         hierarchy = World.get().getClassHierarchy();
-        return buildCallGraph(World.get().getMainMethod());
+        JMethod entry = World.get().getMainMethod();
+        if (lazy) {
+            return new LazyCallGraph(entry, this::resolveLazily);
+        }
+        return parallel ?
+                buildCallGraphInParallel(entry) :
+                buildCallGraph(entry);
     }
 
     private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
         DefaultCallGraph callGraph = new DefaultCallGraph();
         callGraph.addEntryMethod(entry);
-        // TODO - finish me
+        Queue<JMethod> workList = new ArrayDeque<>();
+        workList.add(entry);
+        int iteration = 0;
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (!callGraph.contains(method)) {
+                List<Edge<Invoke, JMethod>> edges = resolveCallEdges(method, null);
+                callGraph.addReachableMethod(method);
+                for (Edge<Invoke, JMethod> edge : edges) {
+                    callGraph.addEdge(edge);
+                    workList.add(edge.getCallee());
+                }
+                if (++iteration % CallGraphStatistics.ITERATION_INTERVAL == 0) {
+                    recordIteration(iteration, callGraph);
+                }
+            }
+        }
+        recordIteration(iteration, callGraph);
+        return callGraph;
+    }
+
+    /**
+     * Builds call graph level by level. In each round, the methods which
+     * become reachable in last round (i.e., the frontier) are resolved
+     * and added to the call graph in parallel, and the new callees form
+     * the frontier of next round. The result is the same as
+     * {@link #buildCallGraph(JMethod)}.
+     */
+    private CallGraph<Invoke, JMethod> buildCallGraphInParallel(JMethod entry) {
+        ConcurrentCallGraph callGraph = new ConcurrentCallGraph();
+        callGraph.addEntryMethod(entry);
+        Set<JMethod> frontier = Set.of(entry);
+        int round = 0;
+        while (!frontier.isEmpty()) {
+            Set<JMethod> newMethods = Sets.newConcurrentSet();
+            // each method appears in the frontier at most once,
+            // so its IR is built by only one thread
+            frontier.parallelStream().forEach(method -> {
+                if (!callGraph.contains(method)) {
+                    Set<Invoke> callSites = Sets.newHybridOrderedSet();
+                    List<Edge<Invoke, JMethod>> edges =
+                            resolveCallEdges(method, callSites);
+                    callGraph.addReachableMethod(method, callSites);
+                    for (Edge<Invoke, JMethod> edge : edges) {
+                        callGraph.addEdge(edge);
+                        if (!callGraph.contains(edge.getCallee())) {
+                            newMethods.add(edge.getCallee());
+                        }
+                    }
+                }
+            });
+            frontier = newMethods;
+            recordIteration(++round, callGraph);
+        }
         return callGraph;
     }
 
+    /**
+     * @param callSites if not null, receives the call sites in given method
+     * @return call edges from the call sites in given method.
+     */
+    private List<Edge<Invoke, JMethod>> resolveCallEdges(
+            JMethod method, @Nullable Set<Invoke> callSites) {
+        if (method.isAbstract()) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        method.getIR().forEach(stmt -> {
+            if (stmt instanceof Invoke callSite) {
+                if (callSites != null) {
+                    callSites.add(callSite);
+                }
+                CallKind kind = CallGraphs.getCallKind(callSite);
+                for (JMethod callee : resolve(callSite)) {
+                    edges.add(new Edge<>(kind, callSite, callee));
+                }
+            }
+        });
+        if (statistics != null) {
+            // the time includes building IR of the method
+            statistics.recordMethod(method, System.nanoTime() - start);
+        }
+        return edges;
+    }
+
+    private void recordIteration(int iteration, CallGraph<Invoke, JMethod> callGraph) {
+        if (statistics != null) {
+            statistics.recordIteration(iteration,
+                    callGraph.getNumberOfMethods(), callGraph.getNumberOfEdges());
+        }
+    }
+
+    /**
+     * Resolves call targets of a call site of the lazy call graph.
+     * {@link CallGraphBuilder} turns off the check of CHA after building
+     * the call graph, i.e., before the call sites of the lazy call graph
+     * are resolved, thus the check is turned on for each resolution.
+     */
+    private Set<JMethod> resolveLazily(Invoke callSite) {
+        ClassHierarchyImpl.setCheckCHA(true);
+        try {
+            return resolve(callSite);
+        } finally {
+            ClassHierarchyImpl.setCheckCHA(false);
+        }
+    }
+
     /**
      * Resolves call targets (callees) of a call site via CHA.
      */
     private Set<JMethod> resolve(Invoke callSite) {
-        // TODO - finish me
-        return null;
+        if (callSite.isDynamic()) {
+            // invokedynamic has no method reference to be resolved by CHA
+            return Set.of();
+        }
+        MethodRef methodRef = callSite.getMethodRef();
+        JClass declaringClass = methodRef.getDeclaringClass();
+        Subsignature subsignature = methodRef.getSubsignature();
+        Set<JMethod> callees = Sets.newSet();
+        switch (CallGraphs.getCallKind(callSite)) {
+            case STATIC -> addIfNotNull(callees,
+                    declaringClass.getDeclaredMethod(subsignature));
+            case SPECIAL -> addIfNotNull(callees,
+                    dispatch(declaringClass, subsignature));
+            case VIRTUAL, INTERFACE -> {
+                // subtypes are looked up in the precomputed index of
+                // class hierarchy instead of traversing it per call site
+                for (JClass jclass : hierarchy.getAllSubclassesOf(declaringClass)) {
+                    addIfNotNull(callees, dispatch(jclass, subsignature));
+                }
+            }
+        }
+        return callees;
+    }
+
+    private static void addIfNotNull(Set<JMethod> callees, JMethod callee) {
+        if (callee != null) {
+            callees.add(callee);
+        }
     }
 
     /**
      * Looks up the target method based on given class and method subsignature.
      *
+     * Lookups are answered by the dispatch table of class hierarchy,
+     * which is shared with other call graph builders and solvers.
+     *
      * @return the dispatched target method, or null if no satisfying method
      * can be found.
      */
     private JMethod dispatch(JClass jclass, Subsignature subsignature) {
-        // TODO - finish me
-        return null;
+        return hierarchy.dispatch(jclass, subsignature);
     }
 }
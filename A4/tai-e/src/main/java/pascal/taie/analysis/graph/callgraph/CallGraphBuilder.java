@@ -48,22 +48,77 @@ public class CallGraphBuilder extends ProgramAnalysis {
 
     private final String algorithm;
 
+    private final boolean parallel;
+
+    private final boolean lazy;
+
+    /**
+     * Whether load/store the call graph from/to on-disk cache.
+     */
+    private final boolean cache;
+
+    /**
+     * Whether collect and dump statistics of call graph construction.
+     */
+    private final boolean stats;
+
     public CallGraphBuilder(AnalysisConfig config) {
         super(config);
         algorithm = config.getOptions().getString("algorithm");
+        parallel = config.getOptions().getBooleanOrDefault("parallel", false);
+        lazy = config.getOptions().getBooleanOrDefault("lazy", false);
+        cache = config.getOptions().getBooleanOrDefault("cache", false);
+        stats = config.getOptions().getBooleanOrDefault("stats", false);
+        if (lazy && cache) {
+            throw new ConfigException("Lazy call graph cannot be cached");
+        }
+        if (lazy && stats) {
+            throw new ConfigException("Statistics of lazy call graph are not supported");
+        }
+        if (cache && stats) {
+            // a call graph loaded from the cache has no build-time statistics
+            throw new ConfigException("Statistics of cached call graph are not supported");
+        }
     }
 
     @Override
     public CallGraph<Invoke, JMethod> analyze() {
+        CallGraphStatistics statistics = stats ? new CallGraphStatistics() : null;
         CGBuilder<Invoke, JMethod> builder;
         if (algorithm.equals("cha")) {
-            builder = new CHABuilder();
+            builder = new CHABuilder(parallel, lazy, statistics);
+        } else if (algorithm.equals("rta")) {
+            if (lazy) {
+                throw new ConfigException("Lazy call graph is not supported by " + algorithm);
+            }
+            if (parallel) {
+                throw new ConfigException("Parallel call graph building is not supported by " + algorithm);
+            }
+            builder = new RTABuilder(statistics);
         } else {
             throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
         }
-        ClassHierarchyImpl.setCheckCHA(true);
-        CallGraph<Invoke, JMethod> callGraph = builder.build();
-        ClassHierarchyImpl.setCheckCHA(false);
+        CallGraphCache callGraphCache = null;
+        CallGraph<Invoke, JMethod> callGraph = null;
+        if (cache) {
+            callGraphCache = new CallGraphCache(algorithm);
+            callGraph = callGraphCache.load();
+        }
+        if (callGraph == null) {
+            ClassHierarchyImpl.setCheckCHA(true);
+            callGraph = builder.build();
+            ClassHierarchyImpl.setCheckCHA(false);
+            if (callGraphCache != null) {
+                callGraphCache.store(callGraph);
+            }
+        }
+        if (!lazy) {
+            // freeze the call graph, as it is only queried from now on
+            callGraph = new CompactCallGraph(callGraph);
+        }
+        if (statistics != null) {
+            statistics.dump(callGraph, ID);
+        }
         takeAction(callGraph);
         return callGraph;
     }
@@ -74,6 +129,11 @@ public class CallGraphBuilder extends ProgramAnalysis {
             return;
         }
         if (action.equals("dump")) {
+            if (lazy) {
+                // dumping would explore the whole call graph
+                logger.warn("Dumping is skipped for lazy call graph");
+                return;
+            }
             logCallGraph(callGraph);
             String file = getOptions().getString("file");
             CallGraphs.dumpCallGraph(callGraph, file);
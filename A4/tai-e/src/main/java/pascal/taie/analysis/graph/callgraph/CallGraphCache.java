@@ -0,0 +1,292 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.Configs;
+import pascal.taie.config.Options;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.StringReps;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of call graphs.
+ * <p>
+ * A cached call graph is keyed by the content of the class path,
+ * the JDK (or the JRE libraries given by the Java version, if the JDK
+ * is not prepended) and the call graph algorithm, so that it is reused
+ * only if the analyzed program and the way to build its call graph are
+ * unchanged. Methods are stored by their signatures, and call sites
+ * by the indexes in the IRs of their containers. Cache files are
+ * loaded via memory-mapped I/O.
+ * <p>
+ * Note that loading a cached call graph skips only the resolution of
+ * call sites. The world (class hierarchy and IRs) is still built as
+ * usual, as the loaded call graph refers to its methods and statements,
+ * and the IR of every reachable method is built when the call graph is
+ * loaded (by {@link DefaultCallGraph#addReachableMethod(JMethod)}, and
+ * to find the call sites by their indexes).
+ */
+final class CallGraphCache {
+
+    private static final Logger logger = LogManager.getLogger(CallGraphCache.class);
+
+    private static final int MAGIC = 0x54414347; // "TACG"
+
+    /**
+     * Version of cache format. It should be increased when the format
+     * or the results of call graph builders change.
+     */
+    private static final int VERSION = 1;
+
+    private static final String CACHE_DIR = "cg-cache";
+
+    /**
+     * Directory of the JRE libraries of a Java version, which are analyzed
+     * if the JDK is not prepended, see {@code AbstractWorldBuilder}.
+     */
+    private static final String JRE_DIR = "java-benchmarks/JREs/jre1.%d";
+
+    private final File file;
+
+    /**
+     * @param algorithm the call graph algorithm
+     */
+    CallGraphCache(String algorithm) {
+        String key = computeKey(World.get().getOptions(), algorithm);
+        file = new File(new File(Configs.getOutputDir(), CACHE_DIR), key + ".cg");
+    }
+
+    private static String computeKey(Options options, String algorithm) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, Integer.toString(VERSION));
+            update(digest, options.getMainClass());
+            update(digest, Boolean.toString(options.isPrependJVM()));
+            update(digest, Integer.toString(options.getJavaVersion()));
+            if (options.isPrependJVM()) {
+                // classes of the running JDK are analyzed
+                update(digest, System.getProperty("java.home"));
+                update(digest, System.getProperty("java.runtime.version"));
+            } else {
+                // classes of the JRE libraries of given Java version
+                // are analyzed, which are found in the same way as
+                // the world builder
+                updateWithContent(digest, Path.of(String.format(
+                        JRE_DIR, options.getJavaVersion())));
+            }
+            String classPath = options.getClassPath();
+            if (classPath != null) {
+                for (String entry : classPath.split(File.pathSeparator)) {
+                    updateWithContent(digest, Path.of(entry));
+                }
+            }
+            update(digest, algorithm);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        digest.update(String.valueOf(s).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Updates digest with the paths and contents of the files in given
+     * class path entry, which is either a directory or a file (e.g., JAR).
+     */
+    private static void updateWithContent(MessageDigest digest, Path entry) {
+        update(digest, entry.toString());
+        if (!Files.exists(entry)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(entry)) {
+            for (Path f : (Iterable<Path>) files.filter(Files::isRegularFile)
+                    .sorted()::iterator) {
+                update(digest, entry.relativize(f).toString());
+                digest.update(Files.readAllBytes(f));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Loads the cached call graph.
+     *
+     * @return the call graph, or null if it is not cached, or the cache
+     * does not match the current world.
+     */
+    @Nullable
+    CallGraph<Invoke, JMethod> load() {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CallGraph<Invoke, JMethod> callGraph = read(buffer);
+            if (callGraph != null) {
+                logger.info("Loaded call graph from {}", file);
+            } else {
+                logger.warn("Call graph cache {} does not match the program, ignore it", file);
+            }
+            return callGraph;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to load call graph cache {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    @Nullable
+    private static CallGraph<Invoke, JMethod> read(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        JMethod[] methods = new JMethod[buffer.getInt()];
+        for (int i = 0; i < methods.length; ++i) {
+            methods[i] = getMethod(hierarchy, readString(buffer));
+            if (methods[i] == null) {
+                return null;
+            }
+        }
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        for (int i = buffer.getInt(); i > 0; --i) {
+            callGraph.addEntryMethod(methods[buffer.getInt()]);
+        }
+        for (JMethod method : methods) {
+            callGraph.addReachableMethod(method);
+        }
+        CallKind[] kinds = CallKind.values();
+        for (int i = buffer.getInt(); i > 0; --i) {
+            JMethod caller = methods[buffer.getInt()];
+            int index = buffer.getInt();
+            JMethod callee = methods[buffer.getInt()];
+            CallKind kind = kinds[buffer.get()];
+            List<Stmt> stmts = caller.getIR().getStmts();
+            if (index >= stmts.size() ||
+                    !(stmts.get(index) instanceof Invoke callSite)) {
+                return null;
+            }
+            callGraph.addEdge(new Edge<>(kind, callSite, callee));
+        }
+        return callGraph;
+    }
+
+    @Nullable
+    private static JMethod getMethod(ClassHierarchy hierarchy, String signature) {
+        JClass jclass = hierarchy.getClass(StringReps.getClassNameOf(signature));
+        return jclass == null ? null : jclass.getDeclaredMethod(
+                Subsignature.get(StringReps.getSubsignatureOf(signature)));
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stores given call graph to the cache. The cache file is written
+     * to a temporary file first, and then moved to its place, so that
+     * concurrent runs never see partially written caches.
+     */
+    void store(CallGraph<Invoke, JMethod> callGraph) {
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            Path temp = Files.createTempFile(
+                    file.getParentFile().toPath(), file.getName(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                write(callGraph, out);
+            }
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Stored call graph to {}", file);
+        } catch (IOException e) {
+            logger.warn("Failed to store call graph cache {}: {}", file, e.toString());
+        }
+    }
+
+    private static void write(CallGraph<Invoke, JMethod> callGraph,
+                              DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        Map<JMethod, Integer> methodIds = Maps.newMap();
+        out.writeInt(callGraph.getNumberOfMethods());
+        for (JMethod method : (Iterable<JMethod>) callGraph.reachableMethods()::iterator) {
+            methodIds.put(method, methodIds.size());
+            writeString(out, method.getSignature());
+        }
+        List<JMethod> entries = callGraph.entryMethods().toList();
+        out.writeInt(entries.size());
+        for (JMethod entry : entries) {
+            out.writeInt(methodIds.get(entry));
+        }
+        out.writeInt(callGraph.getNumberOfEdges());
+        for (Edge<Invoke, JMethod> edge :
+                (Iterable<Edge<Invoke, JMethod>>) callGraph.edges()::iterator) {
+            out.writeInt(methodIds.get(edge.getCallSite().getContainer()));
+            out.writeInt(edge.getCallSite().getIndex());
+            out.writeInt(methodIds.get(edge.getCallee()));
+            out.writeByte(edge.getKind().ordinal());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s)
+            throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
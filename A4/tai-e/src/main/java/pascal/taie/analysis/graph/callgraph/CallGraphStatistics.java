@@ -0,0 +1,217 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.config.Configs;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Collects statistics of call graph construction, which help to find
+ * out the call sites and methods that make the call graph expensive.
+ * <p>
+ * Call graph builders report the time spent on each reachable method
+ * via {@link #recordMethod(JMethod, long)}, and the size of the call
+ * graph under construction via {@link #recordIteration(int, int, int)}.
+ * The structure of the result call graph, i.e., the fan-out of each
+ * call site and the polymorphic call sites (virtual and interface calls
+ * with more than one callee), is computed when dumping. All statistics
+ * are dumped as a JSON summary and CSV tables.
+ * <p>
+ * Only the call graph builders of this assignment, i.e., CHA and RTA,
+ * are instrumented. The call graphs built on the fly by the pointer
+ * analyses (the CI and CS solvers of later assignments) are not
+ * covered: those solvers are left to be implemented, thus they have
+ * no construction loop to report from.
+ * <p>
+ * {@link #recordMethod(JMethod, long)} can be called concurrently.
+ */
+public class CallGraphStatistics {
+
+    private static final Logger logger = LogManager.getLogger(CallGraphStatistics.class);
+
+    /**
+     * Number of entries listed in the JSON summary for
+     * the call sites with largest fan-out and the slowest methods.
+     */
+    private static final int TOP_N = 20;
+
+    /**
+     * Builders record an iteration after processing this number of
+     * methods (and when construction finishes).
+     */
+    public static final int ITERATION_INTERVAL = 1000;
+
+    private final Map<JMethod, Long> methodTimes = Maps.newConcurrentMap();
+
+    /**
+     * Sizes of call graph during construction, in the form of
+     * (iteration, #reachable methods, #edges).
+     */
+    private final List<int[]> growth = new ArrayList<>();
+
+    /**
+     * Records the time spent on processing a reachable method.
+     */
+    public void recordMethod(JMethod method, long nanos) {
+        methodTimes.merge(method, nanos, Long::sum);
+    }
+
+    /**
+     * Records the size of call graph after given iteration of construction.
+     */
+    public void recordIteration(int iteration, int nMethods, int nEdges) {
+        growth.add(new int[]{ iteration, nMethods, nEdges });
+    }
+
+    /**
+     * Dumps the statistics of given call graph to the output directory.
+     *
+     * @param prefix prefix of the dumped files, e.g., ID of the analysis.
+     */
+    public void dump(CallGraph<Invoke, JMethod> callGraph, String prefix) {
+        List<CallSiteInfo> callSites = callGraph.reachableMethods()
+                .flatMap(callGraph::callSitesIn)
+                .map(cs -> new CallSiteInfo(cs, CallGraphs.getCallKind(cs),
+                        callGraph.getCalleesOf(cs).size()))
+                .sorted(Comparator.comparingInt(CallSiteInfo::fanOut).reversed()
+                        .thenComparing(info -> CallGraphs.toString(info.callSite())))
+                .toList();
+        List<Map.Entry<JMethod, Long>> methods = methodTimes.entrySet()
+                .stream()
+                .sorted(Map.Entry.<JMethod, Long>comparingByValue().reversed()
+                        .thenComparing(e -> e.getKey().toString()))
+                .toList();
+        File dir = Configs.getOutputDir();
+        writeCallSites(new File(dir, prefix + "-call-sites.csv"), callSites);
+        writeMethods(new File(dir, prefix + "-methods.csv"), methods);
+        writeGrowth(new File(dir, prefix + "-growth.csv"));
+        writeSummary(new File(dir, prefix + "-stats.json"),
+                callGraph, callSites, methods);
+    }
+
+    private record CallSiteInfo(Invoke callSite, CallKind kind, int fanOut) {
+
+        private boolean isPolymorphic() {
+            return (kind == CallKind.VIRTUAL || kind == CallKind.INTERFACE)
+                    && fanOut > 1;
+        }
+    }
+
+    private static void writeCallSites(File file, List<CallSiteInfo> callSites) {
+        write(file, out -> {
+            out.println("call-site,kind,fan-out");
+            callSites.forEach(info -> out.printf("%s,%s,%d%n",
+                    toCSV(CallGraphs.toString(info.callSite())),
+                    info.kind(), info.fanOut()));
+        });
+    }
+
+    private static void writeMethods(File file,
+                                     List<Map.Entry<JMethod, Long>> methods) {
+        write(file, out -> {
+            out.println("method,nanos");
+            methods.forEach(e -> out.printf("%s,%d%n",
+                    toCSV(e.getKey().toString()), e.getValue()));
+        });
+    }
+
+    private void writeGrowth(File file) {
+        write(file, out -> {
+            out.println("iteration,methods,edges");
+            growth.forEach(g -> out.printf("%d,%d,%d%n", g[0], g[1], g[2]));
+        });
+    }
+
+    private void writeSummary(File file, CallGraph<Invoke, JMethod> callGraph,
+                              List<CallSiteInfo> callSites,
+                              List<Map.Entry<JMethod, Long>> methods) {
+        SortedMap<Integer, Integer> histogram = new TreeMap<>();
+        callSites.forEach(info -> histogram.merge(info.fanOut(), 1, Integer::sum));
+        List<CallSiteInfo> polymorphic = callSites.stream()
+                .filter(CallSiteInfo::isPolymorphic)
+                .toList();
+        write(file, out -> {
+            out.println("{");
+            out.printf("  \"methods\": %d,%n", callGraph.getNumberOfMethods());
+            out.printf("  \"edges\": %d,%n", callGraph.getNumberOfEdges());
+            out.printf("  \"call-sites\": %d,%n", callSites.size());
+            out.printf("  \"polymorphic-call-sites\": %d,%n", polymorphic.size());
+            out.printf("  \"fan-out-histogram\": {%s},%n", histogram.entrySet()
+                    .stream()
+                    .map(e -> String.format("\"%d\": %d", e.getKey(), e.getValue()))
+                    .collect(Collectors.joining(", ")));
+            out.printf("  \"top-polymorphic-call-sites\": [%s],%n", polymorphic
+                    .stream()
+                    .limit(TOP_N)
+                    .map(info -> String.format(
+                            "%n    {\"call-site\": %s, \"kind\": \"%s\", \"fan-out\": %d}",
+                            toJSON(CallGraphs.toString(info.callSite())),
+                            info.kind(), info.fanOut()))
+                    .collect(Collectors.joining(",")));
+            out.printf("  \"slowest-methods\": [%s],%n", methods
+                    .stream()
+                    .limit(TOP_N)
+                    .map(e -> String.format("%n    {\"method\": %s, \"nanos\": %d}",
+                            toJSON(e.getKey().toString()), e.getValue()))
+                    .collect(Collectors.joining(",")));
+            out.printf("  \"growth\": [%s]%n", growth
+                    .stream()
+                    .map(g -> String.format("[%d, %d, %d]", g[0], g[1], g[2]))
+                    .collect(Collectors.joining(", ")));
+            out.println("}");
+        });
+        logger.info("Dumped call graph statistics to {}", file);
+    }
+
+    private static void write(File file, Consumer<PrintStream> writer) {
+        try (PrintStream out = new PrintStream(file)) {
+            writer.accept(out);
+        } catch (FileNotFoundException e) {
+            logger.warn("Failed to dump call graph statistics to {}", file, e);
+        }
+    }
+
+    private static String toCSV(String s) {
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String toJSON(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,480 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable call graph, which is frozen from a call graph whose
+ * construction has finished.
+ * <p>
+ * Methods and call sites are numbered, and the relations among them are
+ * stored in compressed sparse row (CSR) form: the neighbors of node
+ * {@code i} are {@code targets[offsets[i]]} to
+ * {@code targets[offsets[i + 1] - 1]}, sorted by their numbers.
+ * The sets returned by queries are views of these arrays, which are
+ * created on first query of each node and reused afterwards. The sets of
+ * {@link MethodEdge}s are likewise created on first query and reused.
+ */
+public class CompactCallGraph implements CallGraph<Invoke, JMethod> {
+
+    private final List<JMethod> entryMethods;
+
+    private final JMethod[] methods;
+
+    private final Map<JMethod, Integer> methodIds;
+
+    /**
+     * Call sites, numbered method by method, so that the call sites
+     * in a method occupy a contiguous range.
+     */
+    private final Invoke[] callSites;
+
+    private final Map<Invoke, Integer> callSiteIds;
+
+    /**
+     * Call sites of method {@code m} are numbered from
+     * {@code callSiteOffsets[m]} to {@code callSiteOffsets[m + 1] - 1}.
+     */
+    private final int[] callSiteOffsets;
+
+    /**
+     * Call edges, grouped by call sites.
+     */
+    private final Edge<Invoke, JMethod>[] edges;
+
+    private final int[] edgeOffsets;
+
+    private final int[] calleeOffsets;
+
+    private final int[] callees;
+
+    private final int[] callerOffsets;
+
+    private final int[] callers;
+
+    private final int[] inEdgeOffsets;
+
+    /**
+     * Indexes (in {@link #edges}) of edges into each method.
+     */
+    private final int[] inEdges;
+
+    private final int[] succOffsets;
+
+    private final int[] succs;
+
+    private final int[] predOffsets;
+
+    private final int[] preds;
+
+    private final Set<JMethod> nodes;
+
+    private final Set<JMethod>[] calleeViews;
+
+    private final Set<Invoke>[] callerViews;
+
+    private final Set<Invoke>[] callSiteViews;
+
+    private final Set<JMethod>[] succViews;
+
+    private final Set<JMethod>[] predViews;
+
+    private final Set<MethodEdge<Invoke, JMethod>>[] inEdgeViews;
+
+    private final Set<MethodEdge<Invoke, JMethod>>[] outEdgeViews;
+
+    @SuppressWarnings("unchecked")
+    public CompactCallGraph(CallGraph<Invoke, JMethod> callGraph) {
+        entryMethods = callGraph.entryMethods().toList();
+        methods = callGraph.reachableMethods().toArray(JMethod[]::new);
+        int nMethods = methods.length;
+        methodIds = Maps.newMap(nMethods);
+        for (int i = 0; i < nMethods; ++i) {
+            methodIds.put(methods[i], i);
+        }
+        // number call sites and group them by containers
+        callSiteOffsets = new int[nMethods + 1];
+        for (int m = 0; m < nMethods; ++m) {
+            callSiteOffsets[m + 1] = callSiteOffsets[m] +
+                    callGraph.getCallSitesIn(methods[m]).size();
+        }
+        int nCallSites = callSiteOffsets[nMethods];
+        callSites = new Invoke[nCallSites];
+        callSiteIds = Maps.newMap(nCallSites);
+        for (int m = 0; m < nMethods; ++m) {
+            int cs = callSiteOffsets[m];
+            for (Invoke callSite : callGraph.getCallSitesIn(methods[m])) {
+                callSites[cs] = callSite;
+                callSiteIds.put(callSite, cs++);
+            }
+        }
+        // collect edges, grouped by call sites
+        List<Edge<Invoke, JMethod>> edgeList = new ArrayList<>(
+                callGraph.getNumberOfEdges());
+        edgeOffsets = new int[nCallSites + 1];
+        for (int cs = 0; cs < nCallSites; ++cs) {
+            callGraph.edgesOutOf(callSites[cs]).forEach(edgeList::add);
+            edgeOffsets[cs + 1] = edgeList.size();
+        }
+        edges = (Edge<Invoke, JMethod>[]) edgeList.toArray(new Edge<?, ?>[0]);
+        int e = edges.length;
+        // build the relations
+        int[] edgeCallSites = new int[e];
+        int[] edgeCallees = new int[e];
+        int[] edgeCallers = new int[e];
+        for (int cs = 0; cs < nCallSites; ++cs) {
+            int caller = methodIds.get(callGraph.getContainerOf(callSites[cs]));
+            for (int i = edgeOffsets[cs]; i < edgeOffsets[cs + 1]; ++i) {
+                edgeCallSites[i] = cs;
+                edgeCallees[i] = methodIds.get(edges[i].getCallee());
+                edgeCallers[i] = caller;
+            }
+        }
+        calleeOffsets = new int[nCallSites + 1];
+        callees = group(nCallSites, edgeCallSites, edgeCallees, calleeOffsets);
+        callerOffsets = new int[nMethods + 1];
+        callers = group(nMethods, edgeCallees, edgeCallSites, callerOffsets);
+        succOffsets = new int[nMethods + 1];
+        succs = group(nMethods, edgeCallers, edgeCallees, succOffsets);
+        predOffsets = new int[nMethods + 1];
+        preds = group(nMethods, edgeCallees, edgeCallers, predOffsets);
+        inEdgeOffsets = new int[nMethods + 1];
+        inEdges = group(nMethods, edgeCallees,
+                IntStream.range(0, e).toArray(), inEdgeOffsets);
+        nodes = new IdSetView<>(methods, methodIds, null, 0, nMethods);
+        calleeViews = newViews(nCallSites);
+        callerViews = newViews(nMethods);
+        callSiteViews = newViews(nMethods);
+        succViews = newViews(nMethods);
+        predViews = newViews(nMethods);
+        inEdgeViews = newViews(nMethods);
+        outEdgeViews = newViews(nMethods);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Set<E>[] newViews(int n) {
+        return (Set<E>[]) new Set<?>[n];
+    }
+
+    /**
+     * Groups pairs (keys[i], values[i]) by keys into CSR form.
+     * The values of each key are sorted and deduplicated.
+     *
+     * @param nKeys   number of keys
+     * @param offsets receives offsets of the groups
+     * @return the grouped values.
+     */
+    private static int[] group(int nKeys, int[] keys, int[] values, int[] offsets) {
+        int[] counts = new int[nKeys + 1];
+        for (int k : keys) {
+            ++counts[k + 1];
+        }
+        for (int k = 0; k < nKeys; ++k) {
+            counts[k + 1] += counts[k];
+        }
+        int[] grouped = new int[values.length];
+        int[] next = Arrays.copyOf(counts, nKeys);
+        for (int i = 0; i < keys.length; ++i) {
+            grouped[next[keys[i]]++] = values[i];
+        }
+        // sort and deduplicate each group, then compact the array
+        int size = 0;
+        for (int k = 0; k < nKeys; ++k) {
+            Arrays.sort(grouped, counts[k], counts[k + 1]);
+            offsets[k] = size;
+            for (int i = counts[k]; i < counts[k + 1]; ++i) {
+                if (i == counts[k] || grouped[i] != grouped[i - 1]) {
+                    grouped[size++] = grouped[i];
+                }
+            }
+        }
+        offsets[nKeys] = size;
+        return size == grouped.length ? grouped : Arrays.copyOf(grouped, size);
+    }
+
+    private int getId(JMethod method) {
+        Integer id = methodIds.get(method);
+        return id != null ? id : -1;
+    }
+
+    private int getId(Invoke callSite) {
+        Integer id = callSiteIds.get(callSite);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @return the cached view at {@code views[id]}, which is created
+     * by {@code creator} on first access. Racing creations are benign
+     * as the views are immutable.
+     */
+    private static <E> Set<E> getView(Set<E>[] views, int id,
+                                      IntFunction<Set<E>> creator) {
+        if (id < 0) {
+            return Set.of();
+        }
+        Set<E> view = views[id];
+        if (view == null) {
+            view = views[id] = creator.apply(id);
+        }
+        return view;
+    }
+
+    @Override
+    public Set<Invoke> getCallersOf(JMethod callee) {
+        return getView(callerViews, getId(callee), m -> new IdSetView<>(
+                callSites, callSiteIds, callers,
+                callerOffsets[m], callerOffsets[m + 1]));
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOf(Invoke callSite) {
+        return getView(calleeViews, getId(callSite), cs -> new IdSetView<>(
+                methods, methodIds, callees,
+                calleeOffsets[cs], calleeOffsets[cs + 1]));
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOfM(JMethod caller) {
+        return getSuccsOf(caller);
+    }
+
+    @Override
+    public JMethod getContainerOf(Invoke callSite) {
+        return callSite.getContainer();
+    }
+
+    @Override
+    public Set<Invoke> getCallSitesIn(JMethod method) {
+        return getView(callSiteViews, getId(method), m -> new IdSetView<>(
+                callSites, callSiteIds, null,
+                callSiteOffsets[m], callSiteOffsets[m + 1]));
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+        int cs = getId(callSite);
+        return cs < 0 ? Stream.of() :
+                Arrays.stream(edges, edgeOffsets[cs], edgeOffsets[cs + 1]);
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+        int m = getId(method);
+        return m < 0 ? Stream.of() :
+                Arrays.stream(inEdges, inEdgeOffsets[m], inEdgeOffsets[m + 1])
+                        .mapToObj(i -> edges[i]);
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edges() {
+        return Arrays.stream(edges);
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return edges.length;
+    }
+
+    @Override
+    public Stream<JMethod> entryMethods() {
+        return entryMethods.stream();
+    }
+
+    @Override
+    public Stream<JMethod> reachableMethods() {
+        return Arrays.stream(methods);
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return methods.length;
+    }
+
+    @Override
+    public boolean contains(JMethod method) {
+        return methodIds.containsKey(method);
+    }
+
+    // Implementation for Graph interface.
+
+    @Override
+    public boolean hasNode(JMethod node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(JMethod source, JMethod target) {
+        int s = getId(source);
+        int t = getId(target);
+        return s >= 0 && t >= 0 &&
+                Arrays.binarySearch(succs, succOffsets[s], succOffsets[s + 1], t) >= 0;
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getInEdgesOf(JMethod method) {
+        return getView(inEdgeViews, getId(method), m -> {
+            List<MethodEdge<Invoke, JMethod>> inEdges = new ArrayList<>();
+            for (int i = callerOffsets[m]; i < callerOffsets[m + 1]; ++i) {
+                Invoke callSite = callSites[callers[i]];
+                inEdges.add(new MethodEdge<>(
+                        getContainerOf(callSite), method, callSite));
+            }
+            return Set.copyOf(inEdges);
+        });
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getOutEdgesOf(JMethod method) {
+        return getView(outEdgeViews, getId(method), m -> {
+            List<MethodEdge<Invoke, JMethod>> outEdges = new ArrayList<>();
+            for (int cs = callSiteOffsets[m]; cs < callSiteOffsets[m + 1]; ++cs) {
+                for (int i = calleeOffsets[cs]; i < calleeOffsets[cs + 1]; ++i) {
+                    outEdges.add(new MethodEdge<>(
+                            method, methods[callees[i]], callSites[cs]));
+                }
+            }
+            return Set.copyOf(outEdges);
+        });
+    }
+
+    @Override
+    public Set<JMethod> getPredsOf(JMethod node) {
+        return getView(predViews, getId(node), m -> new IdSetView<>(
+                methods, methodIds, preds,
+                predOffsets[m], predOffsets[m + 1]));
+    }
+
+    @Override
+    public Set<JMethod> getSuccsOf(JMethod node) {
+        return getView(succViews, getId(node), m -> new IdSetView<>(
+                methods, methodIds, succs,
+                succOffsets[m], succOffsets[m + 1]));
+    }
+
+    @Override
+    public Set<JMethod> getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return methods.length;
+    }
+
+    // Implementation for StmtResult interface.
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<JMethod> getResult(Stmt stmt) {
+        return getCalleesOf((Invoke) stmt);
+    }
+
+    /**
+     * Immutable set view of the elements whose numbers are
+     * {@code ids[from]} to {@code ids[to - 1]} (sorted),
+     * or {@code from} to {@code to - 1} if {@code ids} is null.
+     */
+    private static class IdSetView<E> extends AbstractSet<E> {
+
+        private final E[] elements;
+
+        private final Map<E, Integer> elementIds;
+
+        private final int[] ids;
+
+        private final int from;
+
+        private final int to;
+
+        private IdSetView(E[] elements, Map<E, Integer> elementIds,
+                          int[] ids, int from, int to) {
+            this.elements = elements;
+            this.elementIds = elementIds;
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer id = elementIds.get(o);
+            if (id == null) {
+                return false;
+            }
+            return ids == null ? from <= id && id < to :
+                    Arrays.binarySearch(ids, from, to, id) >= 0;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < to;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int id = i++;
+                    return elements[ids == null ? id : ids[id]];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return from == to;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Call graph which can be modified and queried by multiple threads
+ * at the same time.
+ * <p>
+ * Reachable methods and call edges are kept in concurrent maps and sets,
+ * so that they can be added in parallel, and queries never block.
+ * Queries during construction see the part of the call graph which has
+ * been added so far, and the sets returned by them are views which
+ * reflect later additions. A reachable method becomes visible only
+ * after its call sites have been collected, thus for any visible method,
+ * {@link #getCallSitesIn(JMethod)} is complete.
+ */
+public class ConcurrentCallGraph implements CallGraph<Invoke, JMethod> {
+
+    private final Map<Invoke, Set<Edge<Invoke, JMethod>>> callSiteToEdges = Maps.newConcurrentMap();
+
+    private final Map<JMethod, Set<Edge<Invoke, JMethod>>> calleeToEdges = Maps.newConcurrentMap();
+
+    private final Map<JMethod, Set<Invoke>> callSitesIn = Maps.newConcurrentMap();
+
+    private final Set<JMethod> entryMethods = Sets.newConcurrentSet();
+
+    /**
+     * Methods which have been added by {@link #addReachableMethod(JMethod)},
+     * including the ones whose call sites are still being collected.
+     */
+    private final Set<JMethod> addedMethods = Sets.newConcurrentSet();
+
+    private final Set<JMethod> reachableMethods = Sets.newConcurrentSet();
+
+    private final AtomicInteger nEdges = new AtomicInteger();
+
+    /**
+     * Adds an entry method to this call graph.
+     */
+    public void addEntryMethod(JMethod entryMethod) {
+        entryMethods.add(entryMethod);
+    }
+
+    /**
+     * Adds a reachable method to this call graph. If multiple threads add
+     * the same method, only one of them builds IR of the method.
+     *
+     * @return true if this call graph changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean addReachableMethod(JMethod method) {
+        if (addedMethods.add(method)) {
+            Set<Invoke> callSites = Sets.newHybridOrderedSet();
+            if (!method.isAbstract()) {
+                method.getIR().forEach(stmt -> {
+                    if (stmt instanceof Invoke invoke) {
+                        callSites.add(invoke);
+                    }
+                });
+            }
+            putReachableMethod(method, callSites);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds a reachable method whose call sites have been collected
+     * by the caller, so that IR of the method is not walked again.
+     *
+     * @param callSites all call sites in the method
+     * @return true if this call graph changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean addReachableMethod(JMethod method, Set<Invoke> callSites) {
+        if (addedMethods.add(method)) {
+            putReachableMethod(method, callSites);
+            return true;
+        }
+        return false;
+    }
+
+    private void putReachableMethod(JMethod method, Set<Invoke> callSites) {
+        callSitesIn.put(method, Collections.unmodifiableSet(callSites));
+        reachableMethods.add(method);
+    }
+
+    /**
+     * Adds a new call graph edge to this call graph.
+     *
+     * @param edge the call edge to be added
+     * @return true if the call graph changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean addEdge(Edge<Invoke, JMethod> edge) {
+        if (callSiteToEdges.computeIfAbsent(edge.getCallSite(),
+                        unused -> Sets.newConcurrentSet())
+                .add(edge)) {
+            calleeToEdges.computeIfAbsent(edge.getCallee(),
+                            unused -> Sets.newConcurrentSet())
+                    .add(edge);
+            nEdges.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Set<Invoke> getCallersOf(JMethod callee) {
+        return Views.toMappedSet(edgesTo(callee), Edge::getCallSite);
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOf(Invoke callSite) {
+        return Views.toMappedSet(edgesFrom(callSite), Edge::getCallee);
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOfM(JMethod caller) {
+        return getSuccsOf(caller);
+    }
+
+    @Override
+    public JMethod getContainerOf(Invoke callSite) {
+        return callSite.getContainer();
+    }
+
+    @Override
+    public Set<Invoke> getCallSitesIn(JMethod method) {
+        return callSitesIn.getOrDefault(method, Set.of());
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+        return edgesFrom(callSite).stream();
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+        return edgesTo(method).stream();
+    }
+
+    private Set<Edge<Invoke, JMethod>> edgesFrom(Invoke callSite) {
+        return callSiteToEdges.getOrDefault(callSite, Set.of());
+    }
+
+    private Set<Edge<Invoke, JMethod>> edgesTo(JMethod method) {
+        return calleeToEdges.getOrDefault(method, Set.of());
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edges() {
+        return callSiteToEdges.values().stream().flatMap(Set::stream);
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return nEdges.get();
+    }
+
+    @Override
+    public Stream<JMethod> entryMethods() {
+        return entryMethods.stream();
+    }
+
+    @Override
+    public Stream<JMethod> reachableMethods() {
+        return reachableMethods.stream();
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return reachableMethods.size();
+    }
+
+    @Override
+    public boolean contains(JMethod method) {
+        return reachableMethods.contains(method);
+    }
+
+    // Implementation for Graph interface.
+
+    @Override
+    public boolean hasNode(JMethod node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(JMethod source, JMethod target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getInEdgesOf(JMethod method) {
+        return edgesInTo(method)
+                .map(edge -> new MethodEdge<>(getContainerOf(edge.getCallSite()),
+                        method, edge.getCallSite()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getOutEdgesOf(JMethod method) {
+        return callSitesIn(method)
+                .flatMap(cs -> getCalleesOf(cs)
+                        .stream()
+                        .map(callee -> new MethodEdge<>(method, callee, cs)))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<JMethod> getPredsOf(JMethod node) {
+        return getCallersOf(node)
+                .stream()
+                .map(this::getContainerOf)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<JMethod> getSuccsOf(JMethod node) {
+        return callSitesIn(node)
+                .flatMap(cs -> getCalleesOf(cs).stream())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<JMethod> getNodes() {
+        return Collections.unmodifiableSet(reachableMethods);
+    }
+
+    // Implementation for StmtResult interface.
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<JMethod> getResult(Stmt stmt) {
+        return getCalleesOf((Invoke) stmt);
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Call graph which is built on demand.
+ * <p>
+ * Call sites are resolved only when their callees are queried, and IR
+ * of a method is built only when its call sites are queried. The queries
+ * about a given method or call site (i.e., call sites in a method, callees
+ * of a call site, and successors and out edges of a method) resolve it
+ * directly, without exploring the call graph. Note that they do not check
+ * whether the method is reachable, so for a method which is not reachable,
+ * they return what it would have if it were reachable, while the call
+ * graph built eagerly returns empty results.
+ * <p>
+ * The queries about reachability and the whole graph (e.g., {@link
+ * #contains(JMethod)}, reachable methods and callers of a method) explore
+ * reachable methods from the entry incrementally, and exploration stops
+ * as soon as the query can be answered. Thus, these queries about
+ * a method which is not reachable explore the whole call graph, and
+ * their results are the same as the call graph built eagerly with the
+ * same resolver.
+ * <p>
+ * Only the clients which query part of the call graph benefit from the
+ * laziness. Analyses which iterate all reachable methods (e.g., ICFG
+ * construction) explore the whole call graph anyway, and so does dumping
+ * the call graph, which is skipped by {@link CallGraphBuilder}.
+ * This class is not thread-safe.
+ */
+class LazyCallGraph implements CallGraph<Invoke, JMethod> {
+
+    private final JMethod entry;
+
+    private final Function<Invoke, Set<JMethod>> resolver;
+
+    private final Map<JMethod, Set<Invoke>> callSites = Maps.newMap();
+
+    private final Map<Invoke, Set<JMethod>> callees = Maps.newMap();
+
+    /**
+     * The part of the call graph which has been explored from the entry.
+     */
+    private final DefaultCallGraph explored = new DefaultCallGraph();
+
+    /**
+     * Methods which have been found reachable but not explored yet.
+     */
+    private final Queue<JMethod> workList = new ArrayDeque<>();
+
+    /**
+     * @param entry    entry method of the call graph
+     * @param resolver resolves callees of a call site
+     */
+    LazyCallGraph(JMethod entry, Function<Invoke, Set<JMethod>> resolver) {
+        this.entry = entry;
+        this.resolver = resolver;
+        explored.addEntryMethod(entry);
+        workList.add(entry);
+    }
+
+    /**
+     * Explores reachable methods until {@code method} is found reachable,
+     * or all reachable methods have been explored if it is null.
+     */
+    private void explore(JMethod method) {
+        while (!workList.isEmpty() &&
+                (method == null || !explored.contains(method))) {
+            JMethod m = workList.poll();
+            if (explored.addReachableMethod(m)) {
+                for (Invoke callSite : resolveCallSitesIn(m)) {
+                    CallKind kind = CallGraphs.getCallKind(callSite);
+                    for (JMethod callee : resolveCalleesOf(callSite)) {
+                        explored.addEdge(new Edge<>(kind, callSite, callee));
+                        workList.add(callee);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the whole call graph, which is fully explored.
+     */
+    private DefaultCallGraph exploreAll() {
+        explore(null);
+        return explored;
+    }
+
+    @Override
+    public Set<Invoke> getCallersOf(JMethod callee) {
+        return exploreAll().getCallersOf(callee);
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOf(Invoke callSite) {
+        return resolveCalleesOf(callSite);
+    }
+
+    private Set<JMethod> resolveCalleesOf(Invoke callSite) {
+        return callees.computeIfAbsent(callSite,
+                cs -> Collections.unmodifiableSet(resolver.apply(cs)));
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOfM(JMethod caller) {
+        return getSuccsOf(caller);
+    }
+
+    @Override
+    public JMethod getContainerOf(Invoke callSite) {
+        return callSite.getContainer();
+    }
+
+    @Override
+    public Set<Invoke> getCallSitesIn(JMethod method) {
+        return resolveCallSitesIn(method);
+    }
+
+    private Set<Invoke> resolveCallSitesIn(JMethod method) {
+        return callSites.computeIfAbsent(method, m -> {
+            if (m.isAbstract()) {
+                return Set.of();
+            }
+            Set<Invoke> invokes = Sets.newHybridOrderedSet();
+            m.getIR().forEach(stmt -> {
+                if (stmt instanceof Invoke invoke) {
+                    invokes.add(invoke);
+                }
+            });
+            return Collections.unmodifiableSet(invokes);
+        });
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+        CallKind kind = CallGraphs.getCallKind(callSite);
+        return getCalleesOf(callSite)
+                .stream()
+                .map(callee -> new Edge<>(kind, callSite, callee));
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+        return exploreAll().edgesInTo(method);
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edges() {
+        return exploreAll().edges();
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return exploreAll().getNumberOfEdges();
+    }
+
+    @Override
+    public Stream<JMethod> entryMethods() {
+        return Stream.of(entry);
+    }
+
+    @Override
+    public Stream<JMethod> reachableMethods() {
+        return exploreAll().reachableMethods();
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return exploreAll().getNumberOfMethods();
+    }
+
+    @Override
+    public boolean contains(JMethod method) {
+        explore(method);
+        return explored.contains(method);
+    }
+
+    // Implementation for Graph interface.
+
+    @Override
+    public boolean hasNode(JMethod node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(JMethod source, JMethod target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getInEdgesOf(JMethod method) {
+        return exploreAll().getInEdgesOf(method);
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getOutEdgesOf(JMethod method) {
+        return callSitesIn(method)
+                .flatMap(cs -> getCalleesOf(cs)
+                        .stream()
+                        .map(callee -> new MethodEdge<>(method, callee, cs)))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<JMethod> getPredsOf(JMethod node) {
+        return exploreAll().getPredsOf(node);
+    }
+
+    @Override
+    public Set<JMethod> getSuccsOf(JMethod node) {
+        return callSitesIn(node)
+                .flatMap(cs -> getCalleesOf(cs).stream())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<JMethod> getNodes() {
+        return exploreAll().getNodes();
+    }
+
+    // Implementation for StmtResult interface.
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<JMethod> getResult(Stmt stmt) {
+        return getCalleesOf((Invoke) stmt);
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of the rapid type analysis (RTA) algorithm.
+ * <p>
+ * Unlike CHA, RTA dispatches a virtual call only on the subclasses of
+ * the declaring class which are instantiated (via {@link New}) in
+ * reachable methods. When a class becomes instantiated, the virtual
+ * call sites met before are dispatched on it again.
+ * <p>
+ * Besides {@link New}, the classes of the string and class literals in
+ * reachable methods, and the classes in {@link #IMPLICIT_CLASSES}, whose
+ * objects are created by the JVM, are treated as instantiated. Objects
+ * created natively or reflectively in other ways are not modeled, thus
+ * the call edges dispatched on them are missed.
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    /**
+     * Classes whose objects are created implicitly by the JVM, e.g.,
+     * the arguments of the main method, the main thread and the
+     * exceptions thrown by the JVM.
+     */
+    private static final List<String> IMPLICIT_CLASSES = List.of(
+            ClassNames.STRING,
+            ClassNames.THREAD,
+            ClassNames.THREAD_GROUP,
+            ClassNames.ABSTRACT_METHOD_ERROR,
+            ClassNames.ARITHMETIC_EXCEPTION,
+            ClassNames.ARRAY_INDEX_OUT_OF_BOUNDS_EXCEPTION,
+            ClassNames.ARRAY_STORE_EXCEPTION,
+            ClassNames.CLASS_CAST_EXCEPTION,
+            ClassNames.CLASS_NOT_FOUND_EXCEPTION,
+            ClassNames.EXCEPTION_IN_INITIALIZER_ERROR,
+            ClassNames.ILLEGAL_MONITOR_STATE_EXCEPTION,
+            ClassNames.NEGATIVE_ARRAY_SIZE_EXCEPTION,
+            ClassNames.NO_CLASS_DEF_FOUND_ERROR,
+            ClassNames.NULL_POINTER_EXCEPTION,
+            ClassNames.OUT_OF_MEMORY_ERROR,
+            ClassNames.STACK_OVERFLOW_ERROR
+    );
+
+    /**
+     * Statistics of call graph construction, or null if not collected.
+     */
+    @Nullable
+    private final CallGraphStatistics statistics;
+
+    private ClassHierarchy hierarchy;
+
+    private DefaultCallGraph callGraph;
+
+    private Queue<JMethod> workList;
+
+    /**
+     * Classes instantiated in reachable methods.
+     */
+    private Set<JClass> instantiatedClasses;
+
+    /**
+     * Virtual and interface call sites in reachable methods,
+     * grouped by the declaring classes of their method references.
+     */
+    private MultiMap<JClass, Invoke> virtualCallSites;
+
+    RTABuilder(@Nullable CallGraphStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        return buildCallGraph(World.get().getMainMethod());
+    }
+
+    private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+        callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        workList = new ArrayDeque<>();
+        instantiatedClasses = Sets.newSet();
+        virtualCallSites = Maps.newMultiMap();
+        IMPLICIT_CLASSES.forEach(name ->
+                addInstantiatedClass(hierarchy.getJREClass(name)));
+        workList.add(entry);
+        int iteration = 0;
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            long start = System.nanoTime();
+            if (callGraph.addReachableMethod(method)) {
+                if (!method.isAbstract()) {
+                    method.getIR().forEach(stmt -> {
+                        if (stmt instanceof New newStmt) {
+                            if (newStmt.getRValue().getType() instanceof ClassType type) {
+                                addInstantiatedClass(type.getJClass());
+                            }
+                        } else if (stmt instanceof AssignLiteral assign) {
+                            if (assign.getRValue() instanceof ReferenceLiteral literal
+                                    && literal.getType() instanceof ClassType type) {
+                                addInstantiatedClass(type.getJClass());
+                            }
+                        } else if (stmt instanceof Invoke callSite) {
+                            processCallSite(callSite);
+                        }
+                    });
+                }
+                if (statistics != null) {
+                    // the time includes building IR of the method, and
+                    // dispatching call sites on the classes it instantiates
+                    statistics.recordMethod(method, System.nanoTime() - start);
+                    if (++iteration % CallGraphStatistics.ITERATION_INTERVAL == 0) {
+                        recordIteration(iteration);
+                    }
+                }
+            }
+        }
+        recordIteration(iteration);
+        return callGraph;
+    }
+
+    private void recordIteration(int iteration) {
+        if (statistics != null) {
+            statistics.recordIteration(iteration,
+                    callGraph.getNumberOfMethods(), callGraph.getNumberOfEdges());
+        }
+    }
+
+    private void addInstantiatedClass(JClass jclass) {
+        if (jclass != null && instantiatedClasses.add(jclass)) {
+            for (JClass declaringClass : virtualCallSites.keySet()) {
+                if (hierarchy.isSubclass(declaringClass, jclass)) {
+                    for (Invoke callSite : virtualCallSites.get(declaringClass)) {
+                        addCallEdge(callSite, hierarchy.dispatch(jclass,
+                                callSite.getMethodRef().getSubsignature()));
+                    }
+                }
+            }
+        }
+    }
+
+    private void processCallSite(Invoke callSite) {
+        if (callSite.isDynamic()) {
+            // invokedynamic has no method reference to be resolved by RTA
+            return;
+        }
+        MethodRef methodRef = callSite.getMethodRef();
+        JClass declaringClass = methodRef.getDeclaringClass();
+        Subsignature subsignature = methodRef.getSubsignature();
+        switch (CallGraphs.getCallKind(callSite)) {
+            case STATIC -> addCallEdge(callSite,
+                    declaringClass.getDeclaredMethod(subsignature));
+            case SPECIAL -> addCallEdge(callSite,
+                    hierarchy.dispatch(declaringClass, subsignature));
+            case VIRTUAL, INTERFACE -> {
+                virtualCallSites.put(declaringClass, callSite);
+                for (JClass jclass : instantiatedClasses) {
+                    if (hierarchy.isSubclass(declaringClass, jclass)) {
+                        addCallEdge(callSite,
+                                hierarchy.dispatch(jclass, subsignature));
+                    }
+                }
+            }
+        }
+    }
+
+    private void addCallEdge(Invoke callSite, JMethod callee) {
+        if (callee != null && callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(callSite), callSite, callee))) {
+            workList.add(callee);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import pascal.taie.World;
+import pascal.taie.analysis.exception.ThrowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.Scope;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Provides the CFGs of methods for the ICFGs which are built without
+ * the cfg analysis, i.e., {@link CompactICFG} and {@link LazyICFG}.
+ * <p>
+ * The CFG of a method is taken from its IR if the cfg analysis has built
+ * it. Otherwise, it is built (with the default options of the throw and
+ * cfg analyses) and stored in the IR, if the method is in the scope which
+ * the cfg analysis would cover, so that the ICFGs have the same nodes as
+ * {@link ICFGBuilder} in either case.
+ */
+class CFGProvider {
+
+    private final boolean appOnly = Scope.APP.equals(
+            World.get().getOptions().getScope());
+
+    private ThrowAnalysis throwAnalysis;
+
+    private CFGBuilder cfgBuilder;
+
+    /**
+     * @return the CFG of given method, or {@code null} if the method
+     * is out of the scope of the cfg analysis.
+     */
+    CFG<Stmt> getCFGOf(JMethod method) {
+        if (method.isAbstract() || method.isNative() ||
+                (appOnly && !method.getDeclaringClass().isApplication())) {
+            return null;
+        }
+        IR ir = method.getIR();
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        if (cfg == null) {
+            if (cfgBuilder == null) {
+                throwAnalysis = new ThrowAnalysis(new AnalysisConfig(
+                        ThrowAnalysis.ID,
+                        "exception", "explicit", "algorithm", "intra"));
+                cfgBuilder = new CFGBuilder(new AnalysisConfig(
+                        CFGBuilder.ID, "exception", "explicit", "dump", false));
+            }
+            if (ir.getResult(ThrowAnalysis.ID) == null) {
+                ir.storeResult(ThrowAnalysis.ID, throwAnalysis.analyze(ir));
+            }
+            cfg = cfgBuilder.analyze(ir);
+            ir.storeResult(CFGBuilder.ID, cfg);
+        }
+        return cfg;
+    }
+}
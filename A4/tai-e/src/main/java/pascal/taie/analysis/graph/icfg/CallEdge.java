@@ -47,4 +47,9 @@ public class CallEdge<Node> extends ICFGEdge<Node> {
     public JMethod getCallee() {
         return callee;
     }
+
+    @Override
+    public <A, R> R accept(ICFGEdgeVisitor<Node, A, R> visitor, A arg) {
+        return visitor.visit(this, arg);
+    }
 }
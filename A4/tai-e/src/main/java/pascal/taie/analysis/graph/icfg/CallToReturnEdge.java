@@ -34,4 +34,13 @@ public class CallToReturnEdge<Node> extends ICFGEdge<Node> {
     public CallToReturnEdge(Edge<Node> edge) {
         super(edge.getSource(), edge.getTarget());
     }
+
+    CallToReturnEdge(Node callSite, Node returnSite) {
+        super(callSite, returnSite);
+    }
+
+    @Override
+    public <A, R> R accept(ICFGEdgeVisitor<Node, A, R> visitor, A arg) {
+        return visitor.visit(this, arg);
+    }
 }
@@ -0,0 +1,491 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable ICFG whose edges are encoded in primitive arrays, instead of
+ * being kept as {@link ICFGEdge} objects.
+ * <p>
+ * Nodes are numbered method by method, so that the nodes of a method
+ * occupy a contiguous range. Edge {@code e} is the triple
+ * {@code (edges[3e], edges[3e + 1], edges[3e + 2])}, i.e., its kind and
+ * the numbers of its source and target. For a return edge, the kind also
+ * carries the number of the corresponding call site. The out (in) edges
+ * of node {@code n} are {@code outEdges[outOffsets[n]]} to
+ * {@code outEdges[outOffsets[n + 1] - 1]} (likewise for in edges).
+ * <p>
+ * No {@link ICFGEdge} is retained. {@link #getInEdgesOf(Stmt)} and
+ * {@link #getOutEdgesOf(Stmt)} create the edges from their triples as they
+ * are iterated, dispatching on the kinds; only a normal edge looks up its
+ * CFG edge, and the return variables and exceptions of return edges are
+ * computed once per method when this ICFG is built. Thus, this ICFG holds
+ * no mutable state, and may be queried by multiple threads. Clients which
+ * only need the neighbors of nodes should use {@link #getPredsOf(Stmt)}
+ * and {@link #getSuccsOf(Stmt)}, which create no edges.
+ * <p>
+ * The CFGs are obtained from {@link CFGProvider}, thus this ICFG does not
+ * require the cfg and icfg analyses.
+ */
+public class CompactICFG extends AbstractICFG<JMethod, Stmt> {
+
+    private static final Logger logger = LogManager.getLogger(CompactICFG.class);
+
+    // kinds of edges
+    private static final int NORMAL = 0;
+
+    private static final int CALL_TO_RETURN = 1;
+
+    private static final int CALL = 2;
+
+    private static final int RETURN = 3;
+
+    /**
+     * Number of the low bits of an encoded kind which hold the kind.
+     * The other bits of a return edge hold its call site.
+     */
+    private static final int KIND_BITS = 2;
+
+    private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+
+    private final CFGProvider cfgProvider = new CFGProvider();
+
+    private final CFG<Stmt>[] cfgs;
+
+    /**
+     * Nodes of method {@code m} are numbered from {@code nodeOffsets[m]}
+     * to {@code nodeOffsets[m + 1] - 1}.
+     */
+    private final int[] nodeOffsets;
+
+    private final Stmt[] nodes;
+
+    private final Map<Stmt, Integer> nodeIds;
+
+    /**
+     * (kind, source, target) triples of the edges.
+     */
+    private final int[] edges;
+
+    private final int[] outOffsets;
+
+    private final int[] outEdges;
+
+    private final int[] inOffsets;
+
+    private final int[] inEdges;
+
+    /**
+     * Variables returned by each method, for its return edges.
+     */
+    private final Set<Var>[] returnVars;
+
+    /**
+     * Exceptions thrown out of each method, for its return edges.
+     */
+    private final Set<ClassType>[] exceptions;
+
+    private final Set<Stmt> nodeSet;
+
+    @SuppressWarnings("unchecked")
+    public CompactICFG(CallGraph<Stmt, JMethod> callGraph) {
+        super(callGraph);
+        // number the nodes, method by method
+        List<CFG<Stmt>> cfgList = new ArrayList<>();
+        callGraph.reachableMethods().forEach(method -> {
+            CFG<Stmt> cfg = cfgProvider.getCFGOf(method);
+            if (cfg == null) {
+                logger.warn("CFG of {} is absent, try to fix this" +
+                        " by adding option -scope=reachable", method);
+            } else {
+                cfgList.add(cfg);
+            }
+        });
+        cfgs = (CFG<Stmt>[]) cfgList.toArray(new CFG<?>[0]);
+        nodeOffsets = new int[cfgs.length + 1];
+        for (int m = 0; m < cfgs.length; ++m) {
+            nodeOffsets[m + 1] = nodeOffsets[m] + cfgs[m].getNumberOfNodes();
+        }
+        int nNodes = nodeOffsets[cfgs.length];
+        nodes = new Stmt[nNodes];
+        nodeIds = Maps.newMap(nNodes);
+        for (int m = 0; m < cfgs.length; ++m) {
+            int n = nodeOffsets[m];
+            for (Stmt node : cfgs[m]) {
+                nodes[n] = node;
+                nodeIds.put(node, n++);
+            }
+        }
+        edges = encodeEdges();
+        int nEdges = edges.length / 3;
+        outOffsets = new int[nNodes + 1];
+        outEdges = group(nNodes, nEdges, 1, outOffsets);
+        inOffsets = new int[nNodes + 1];
+        inEdges = group(nNodes, nEdges, 2, inOffsets);
+        returnVars = (Set<Var>[]) new Set<?>[cfgs.length];
+        exceptions = (Set<ClassType>[]) new Set<?>[cfgs.length];
+        for (int m = 0; m < cfgs.length; ++m) {
+            collectReturnInfo(m);
+        }
+        nodeSet = new AbstractSet<>() {
+
+            @Override
+            public boolean contains(Object o) {
+                return nodeIds.containsKey(o);
+            }
+
+            @Override
+            public Iterator<Stmt> iterator() {
+                return Arrays.asList(nodes).iterator();
+            }
+
+            @Override
+            public int size() {
+                return nodes.length;
+            }
+        };
+    }
+
+    /**
+     * Encodes the edges as in {@link ICFGBuilder}. Like there, at most one
+     * edge of a kind is kept for each pair of source and target, e.g., for
+     * the CFG edges of switch cases which go to the same statement.
+     */
+    private int[] encodeEdges() {
+        IntStream.Builder builder = IntStream.builder();
+        // return sites which have been connected to each callee exit
+        MultiMap<Stmt, Stmt> returnSites = Maps.newMultiMap();
+        List<Stmt> targets = new ArrayList<>();
+        for (CFG<Stmt> cfg : cfgs) {
+            for (Stmt node : cfg) {
+                int source = nodeIds.get(node);
+                int kind = isCallSite(node) ? CALL_TO_RETURN : NORMAL;
+                targets.clear();
+                for (Edge<Stmt> edge : cfg.getOutEdgesOf(node)) {
+                    if (!targets.contains(edge.getTarget())) {
+                        targets.add(edge.getTarget());
+                        add(builder, kind, source, nodeIds.get(edge.getTarget()));
+                    }
+                }
+                if (kind == CALL_TO_RETURN) {
+                    for (JMethod callee : getCalleesOf(node)) {
+                        CFG<Stmt> calleeCFG = cfgProvider.getCFGOf(callee);
+                        if (calleeCFG == null) {
+                            logger.warn("CFG of {} is missing", callee);
+                            continue;
+                        }
+                        add(builder, CALL, source,
+                                nodeIds.get(calleeCFG.getEntry()));
+                        Stmt exit = calleeCFG.getExit();
+                        for (Stmt retSite : targets) {
+                            if (returnSites.put(exit, retSite)) {
+                                add(builder, RETURN | source << KIND_BITS,
+                                        nodeIds.get(exit), nodeIds.get(retSite));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return builder.build().toArray();
+    }
+
+    private static void add(IntStream.Builder builder,
+                            int kind, int source, int target) {
+        builder.add(kind);
+        builder.add(source);
+        builder.add(target);
+    }
+
+    /**
+     * Groups the edges by their sources ({@code slot} is 1) or targets
+     * ({@code slot} is 2) into CSR form, keeping the order of the edges.
+     *
+     * @param offsets receives offsets of the groups
+     * @return indexes of the grouped edges.
+     */
+    private int[] group(int nNodes, int nEdges, int slot, int[] offsets) {
+        for (int e = 0; e < nEdges; ++e) {
+            ++offsets[edges[3 * e + slot] + 1];
+        }
+        for (int n = 0; n < nNodes; ++n) {
+            offsets[n + 1] += offsets[n];
+        }
+        int[] grouped = new int[nEdges];
+        int[] next = Arrays.copyOf(offsets, nNodes);
+        for (int e = 0; e < nEdges; ++e) {
+            grouped[next[edges[3 * e + slot]]++] = e;
+        }
+        return grouped;
+    }
+
+    private int getId(Stmt node) {
+        Integer id = nodeIds.get(node);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @return index of the method containing node {@code node}.
+     */
+    private int getMethodIndex(int node) {
+        int m = Arrays.binarySearch(nodeOffsets, node);
+        return m >= 0 ? m : -m - 2;
+    }
+
+    private CFG<Stmt> getCFGOf(int node) {
+        return cfgs[getMethodIndex(node)];
+    }
+
+    /**
+     * Collects the return variables and exceptions of method {@code m}
+     * from the CFG edges to its exit.
+     */
+    private void collectReturnInfo(int m) {
+        Set<Var> retVars = Sets.newHybridSet();
+        Set<ClassType> excs = Sets.newHybridSet();
+        CFG<Stmt> cfg = cfgs[m];
+        cfg.getInEdgesOf(cfg.getExit()).forEach(edge -> {
+            if (edge.getKind() == Edge.Kind.RETURN) {
+                Var retVar = ((Return) edge.getSource()).getValue();
+                if (retVar != null) {
+                    retVars.add(retVar);
+                }
+            }
+            if (edge.isExceptional()) {
+                excs.addAll(edge.getExceptions());
+            }
+        });
+        returnVars[m] = retVars;
+        exceptions[m] = excs;
+    }
+
+    /**
+     * @return a new {@link ICFGEdge} of edge {@code e}.
+     */
+    private ICFGEdge<Stmt> newEdge(int e) {
+        int kind = edges[3 * e];
+        int source = edges[3 * e + 1];
+        int target = edges[3 * e + 2];
+        return switch (kind & KIND_MASK) {
+            case NORMAL -> new NormalEdge<>(getCFGEdge(source, target));
+            case CALL_TO_RETURN -> new CallToReturnEdge<>(nodes[source], nodes[target]);
+            case CALL -> new CallEdge<>(nodes[source], nodes[target],
+                    cfgs[getMethodIndex(target)].getMethod());
+            default -> {
+                int m = getMethodIndex(source);
+                yield new ReturnEdge<>(nodes[source], nodes[target],
+                        nodes[kind >>> KIND_BITS], returnVars[m], exceptions[m]);
+            }
+        };
+    }
+
+    /**
+     * @return the first CFG edge from {@code source} to {@code target},
+     * which is the one kept by {@link ICFGBuilder}.
+     */
+    private Edge<Stmt> getCFGEdge(int source, int target) {
+        Stmt sourceNode = nodes[source];
+        Stmt targetNode = nodes[target];
+        for (Edge<Stmt> edge : getCFGOf(source).getOutEdgesOf(sourceNode)) {
+            if (edge.getTarget().equals(targetNode)) {
+                return edge;
+            }
+        }
+        throw new AssertionError(sourceNode + " -> " + targetNode + " is not a CFG edge");
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt node) {
+        int n = getId(node);
+        return n < 0 ? Set.of() : new EdgeSetView<>(inEdges,
+                inOffsets[n], inOffsets[n + 1], this::newEdge);
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt node) {
+        int n = getId(node);
+        return n < 0 ? Set.of() : new EdgeSetView<>(outEdges,
+                outOffsets[n], outOffsets[n + 1], this::newEdge);
+    }
+
+    @Override
+    public int getInDegreeOf(Stmt node) {
+        int n = getId(node);
+        return n < 0 ? 0 : inOffsets[n + 1] - inOffsets[n];
+    }
+
+    @Override
+    public int getOutDegreeOf(Stmt node) {
+        int n = getId(node);
+        return n < 0 ? 0 : outOffsets[n + 1] - outOffsets[n];
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt node) {
+        int n = getId(node);
+        return n < 0 ? Set.of() : new EdgeSetView<>(inEdges,
+                inOffsets[n], inOffsets[n + 1], e -> nodes[edges[3 * e + 1]]);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt node) {
+        int n = getId(node);
+        return n < 0 ? Set.of() : new EdgeSetView<>(outEdges,
+                outOffsets[n], outOffsets[n + 1], e -> nodes[edges[3 * e + 2]]);
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return getCFGOf(nodeIds.get(callSite)).getSuccsOf(callSite);
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        return cfgProvider.getCFGOf(method).getEntry();
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        return cfgProvider.getCFGOf(method).getExit();
+    }
+
+    @Override
+    public JMethod getContainingMethodOf(Stmt node) {
+        return getCFGOf(nodeIds.get(node)).getMethod();
+    }
+
+    @Override
+    public boolean isCallSite(Stmt node) {
+        return node instanceof Invoke;
+    }
+
+    @Override
+    public boolean hasNode(Stmt node) {
+        return nodeIds.containsKey(node);
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        int s = getId(source);
+        int t = getId(target);
+        if (s >= 0 && t >= 0) {
+            for (int i = outOffsets[s]; i < outOffsets[s + 1]; ++i) {
+                if (edges[3 * outEdges[i] + 2] == t) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<Stmt> getNodes() {
+        return nodeSet;
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return nodes.length;
+    }
+
+    /**
+     * Immutable set view of the elements mapped from edges
+     * {@code edgeIds[from]} to {@code edgeIds[to - 1]}.
+     * The edges between two nodes are unique, thus so are the elements.
+     */
+    private static class EdgeSetView<E> extends AbstractSet<E> {
+
+        private final int[] edgeIds;
+
+        private final int from;
+
+        private final int to;
+
+        private final IntFunction<E> mapper;
+
+        private EdgeSetView(int[] edgeIds, int from, int to,
+                            IntFunction<E> mapper) {
+            this.edgeIds = edgeIds;
+            this.from = from;
+            this.to = to;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < to;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return mapper.apply(edgeIds[i++]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return from == to;
+        }
+    }
+}
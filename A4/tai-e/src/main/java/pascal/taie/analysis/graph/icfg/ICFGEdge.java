@@ -42,6 +42,13 @@ public abstract class ICFGEdge<Node> extends AbstractEdge<Node> {
         super(source, target);
     }
 
+    /**
+     * Dispatches this edge to the method of {@code visitor} for its type.
+     *
+     * @return the result of the visit.
+     */
+    public abstract <A, R> R accept(ICFGEdgeVisitor<Node, A, R> visitor, A arg);
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,43 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+/**
+ * Visitor of {@link ICFGEdge}, which dispatches an edge to the method
+ * for its concrete type, without instanceof tests.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <A>    type of the argument passed along with the edge
+ * @param <R>    type of the result of the visit
+ * @see ICFGEdge#accept(ICFGEdgeVisitor, Object)
+ */
+public interface ICFGEdgeVisitor<Node, A, R> {
+
+    R visit(NormalEdge<Node> edge, A arg);
+
+    R visit(CallToReturnEdge<Node> edge, A arg);
+
+    R visit(CallEdge<Node> edge, A arg);
+
+    R visit(ReturnEdge<Node> edge, A arg);
+}
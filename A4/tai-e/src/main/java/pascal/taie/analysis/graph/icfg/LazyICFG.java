@@ -0,0 +1,302 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ICFG which is built on demand, method by method, and call site by
+ * call site.
+ * <p>
+ * The edges between the nodes of a method are added when a node of the
+ * method is first queried. The call edges of a call site, and the return
+ * edges to its return sites, are added when the call site is resolved,
+ * i.e., when its outgoing edges (or successors) are first queried. Thus,
+ * the callees of a call site which is never resolved are not built, nor
+ * are their CFGs. The entry and exit of a callee are known once a call
+ * edge to the callee has been added, so that the callee is built when
+ * they are queried. Queries about the whole graph (e.g.,
+ * {@link #getNodes()}) and about the nodes which are unknown build all
+ * reachable methods and resolve all their call sites.
+ * <p>
+ * For a built method, the edges of its nodes are the same as those of
+ * {@link DefaultICFG}, except the call edges to its entry, the return
+ * edges from its exit, and the return edges to its return sites, which
+ * are added as the call sites are resolved. E.g., the incoming edges of
+ * a return site do not include the return edges until its call site is
+ * resolved. The CFG of a method is obtained from {@link CFGProvider} when
+ * the method is first referred to, thus this ICFG does not require the
+ * cfg and icfg analyses. This class is not thread-safe.
+ */
+public class LazyICFG extends AbstractICFG<JMethod, Stmt> {
+
+    private static final Logger logger = LogManager.getLogger(LazyICFG.class);
+
+    private final CFGProvider cfgProvider = new CFGProvider();
+
+    /**
+     * CFGs of the nodes of built methods.
+     */
+    private final Map<Stmt, CFG<Stmt>> stmtToCFG = Maps.newMap();
+
+    private final Set<JMethod> built = Sets.newSet();
+
+    private final Set<Stmt> resolved = Sets.newSet();
+
+    /**
+     * Entries and exits of the methods which have been referred to,
+     * but may not be built yet.
+     */
+    private final Map<Stmt, JMethod> boundaries = Maps.newMap();
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> inEdges = Maps.newMultiMap();
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> outEdges = Maps.newMultiMap();
+
+    /**
+     * Return sites which have been connected to each callee exit.
+     */
+    private final MultiMap<Stmt, Stmt> returnSites = Maps.newMultiMap();
+
+    private boolean builtAll = false;
+
+    public LazyICFG(CallGraph<Stmt, JMethod> callGraph) {
+        super(callGraph);
+    }
+
+    /**
+     * Builds the edges between the nodes of given method,
+     * if it has not been built.
+     */
+    private void build(JMethod method) {
+        if (!built.add(method)) {
+            return;
+        }
+        CFG<Stmt> cfg = cfgProvider.getCFGOf(method);
+        if (cfg == null) {
+            logger.warn("CFG of {} is absent, try to fix this" +
+                    " by adding option -scope=reachable", method);
+            return;
+        }
+        cfg.forEach(node -> stmtToCFG.put(node, cfg));
+        List<Stmt> targets = new ArrayList<>();
+        for (Stmt node : cfg) {
+            boolean isCallSite = isCallSite(node);
+            targets.clear();
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(node)) {
+                if (!targets.contains(edge.getTarget())) {
+                    targets.add(edge.getTarget());
+                    addEdge(isCallSite ? new CallToReturnEdge<>(edge)
+                            : new NormalEdge<>(edge));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the call edges of given call site and the return edges to its
+     * return sites, if it has not been resolved. The method containing
+     * the call site must have been built.
+     */
+    private void resolve(Stmt callSite, CFG<Stmt> cfg) {
+        if (!resolved.add(callSite)) {
+            return;
+        }
+        for (JMethod callee : getCalleesOf(callSite)) {
+            CFG<Stmt> calleeCFG = cfgProvider.getCFGOf(callee);
+            if (calleeCFG == null) {
+                logger.warn("CFG of {} is missing", callee);
+                continue;
+            }
+            addBoundaries(callee, calleeCFG);
+            addEdge(new CallEdge<>(callSite, calleeCFG.getEntry(), callee));
+            Stmt exit = calleeCFG.getExit();
+            for (Stmt retSite : cfg.getSuccsOf(callSite)) {
+                if (returnSites.put(exit, retSite)) {
+                    addEdge(newReturnEdge(calleeCFG, retSite, callSite));
+                }
+            }
+        }
+    }
+
+    private void addBoundaries(JMethod method, CFG<Stmt> cfg) {
+        boundaries.put(cfg.getEntry(), method);
+        boundaries.put(cfg.getExit(), method);
+    }
+
+    private void addEdge(ICFGEdge<Stmt> edge) {
+        outEdges.put(edge.getSource(), edge);
+        inEdges.put(edge.getTarget(), edge);
+    }
+
+    private static ReturnEdge<Stmt> newReturnEdge(
+            CFG<Stmt> calleeCFG, Stmt retSite, Stmt callSite) {
+        Stmt exit = calleeCFG.getExit();
+        Set<Var> retVars = Sets.newHybridSet();
+        Set<ClassType> exceptions = Sets.newHybridSet();
+        calleeCFG.getInEdgesOf(exit).forEach(edge -> {
+            if (edge.getKind() == Edge.Kind.RETURN) {
+                Var retVar = ((Return) edge.getSource()).getValue();
+                if (retVar != null) {
+                    retVars.add(retVar);
+                }
+            }
+            if (edge.isExceptional()) {
+                exceptions.addAll(edge.getExceptions());
+            }
+        });
+        return new ReturnEdge<>(exit, retSite, callSite, retVars, exceptions);
+    }
+
+    /**
+     * Builds the method containing given node.
+     *
+     * @return the CFG containing given node, or {@code null} if the node
+     * is not in any reachable method.
+     */
+    private CFG<Stmt> ensureBuilt(Stmt node) {
+        CFG<Stmt> cfg = stmtToCFG.get(node);
+        if (cfg == null) {
+            JMethod method = boundaries.get(node);
+            if (method != null) {
+                build(method);
+            } else {
+                buildAll();
+            }
+            cfg = stmtToCFG.get(node);
+        }
+        return cfg;
+    }
+
+    private void buildAll() {
+        if (!builtAll) {
+            builtAll = true;
+            callGraph.reachableMethods().forEach(this::build);
+            stmtToCFG.forEach((node, cfg) -> {
+                if (isCallSite(node)) {
+                    resolve(node, cfg);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return the incoming edges of given node. For a return site, the
+     * return edges are included only after its call site is resolved.
+     */
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt node) {
+        ensureBuilt(node);
+        return inEdges.get(node);
+    }
+
+    /**
+     * @return the outgoing edges of given node. For a call site, this
+     * resolves it, thus builds the CFGs of its callees.
+     */
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt node) {
+        CFG<Stmt> cfg = ensureBuilt(node);
+        if (cfg != null && isCallSite(node)) {
+            resolve(node, cfg);
+        }
+        return outEdges.get(node);
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt node) {
+        return Views.toMappedSet(getInEdgesOf(node), ICFGEdge::getSource);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt node) {
+        return Views.toMappedSet(getOutEdgesOf(node), ICFGEdge::getTarget);
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return ensureBuilt(callSite).getSuccsOf(callSite);
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        CFG<Stmt> cfg = cfgProvider.getCFGOf(method);
+        addBoundaries(method, cfg);
+        return cfg.getEntry();
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        CFG<Stmt> cfg = cfgProvider.getCFGOf(method);
+        addBoundaries(method, cfg);
+        return cfg.getExit();
+    }
+
+    @Override
+    public JMethod getContainingMethodOf(Stmt node) {
+        JMethod method = boundaries.get(node);
+        return method != null ? method : ensureBuilt(node).getMethod();
+    }
+
+    @Override
+    public boolean isCallSite(Stmt node) {
+        return node instanceof Invoke;
+    }
+
+    @Override
+    public boolean hasNode(Stmt node) {
+        return ensureBuilt(node) != null;
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<Stmt> getNodes() {
+        buildAll();
+        return Collections.unmodifiableSet(stmtToCFG.keySet());
+    }
+}
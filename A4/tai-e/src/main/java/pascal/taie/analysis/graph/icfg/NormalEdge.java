@@ -46,4 +46,9 @@ public class NormalEdge<Node> extends ICFGEdge<Node> {
     public Edge<Node> getCFGEdge() {
         return cfgEdge;
     }
+
+    @Override
+    public <A, R> R accept(ICFGEdgeVisitor<Node, A, R> visitor, A arg) {
+        return visitor.visit(this, arg);
+    }
 }
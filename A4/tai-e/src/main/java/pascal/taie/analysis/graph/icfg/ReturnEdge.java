@@ -92,4 +92,9 @@ public class ReturnEdge<Node> extends ICFGEdge<Node> {
     public Collection<ClassType> getExceptions() {
         return exceptions;
     }
+
+    @Override
+    public <A, R> R accept(ICFGEdgeVisitor<Node, A, R> visitor, A arg) {
+        return visitor.visit(this, arg);
+    }
 }
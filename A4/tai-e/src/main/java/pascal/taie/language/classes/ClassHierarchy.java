@@ -75,6 +75,19 @@ public interface ClassHierarchy {
      */
     Collection<JClass> getDirectSubclassesOf(JClass jclass);
 
+    /**
+     * @return true if {@code subclass} is {@code superclass} or its
+     * direct or indirect subclass, subinterface or implementor,
+     * otherwise false.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass);
+
+    /**
+     * @return {@code jclass} and all its direct and indirect subclasses,
+     * subinterfaces and implementors.
+     */
+    Collection<JClass> getAllSubclassesOf(JClass jclass);
+
     /**
      * Obtains a JRE class by it name.
      *
@@ -87,6 +100,21 @@ public interface ClassHierarchy {
 
     @Nullable JMethod resolveMethod(MethodRef methodRef);
 
+    /**
+     * Dispatches a method based on the given receiver class and
+     * subsignature, i.e., looks up the non-abstract method which is
+     * invoked when a method of the subsignature is called on an
+     * instance of the class.
+     * <p>
+     * Results are memoized, and this method is safe to be called
+     * concurrently.
+     *
+     * @return the dispatched target method, or null if no satisfying
+     * method can be found.
+     */
+    @Nullable
+    JMethod dispatch(JClass receiverClass, Subsignature subsignature);
+
     /**
      * Obtains a method declared in a JRE class by its signature.
      *
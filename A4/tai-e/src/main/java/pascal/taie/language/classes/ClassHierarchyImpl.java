@@ -30,10 +30,12 @@ import pascal.taie.util.AnalysisException;
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static pascal.taie.util.collection.Maps.newConcurrentMap;
 import static pascal.taie.util.collection.Maps.newMap;
 import static pascal.taie.util.collection.Maps.newSmallMap;
 import static pascal.taie.util.collection.Sets.newHybridSet;
@@ -65,6 +67,20 @@ public class ClassHierarchyImpl implements ClassHierarchy {
      */
     private final Map<JClass, Set<JClass>> directSubclasses = newMap();
 
+    /**
+     * Memoized results of {@link #dispatch(JClass, Subsignature)},
+     * filled lazily. Failed lookups are recorded as empty results,
+     * so that they are not repeated either.
+     */
+    private final Map<JClass, Map<Subsignature, Optional<JMethod>>> dispatchTable
+            = newConcurrentMap();
+
+    /**
+     * Transitive subtype relation, built on first query, i.e.,
+     * after all classes have been added to this hierarchy.
+     */
+    private volatile SubtypeIndex subtypeIndex;
+
     @Override
     public void setDefaultClassLoader(JClassLoader loader) {
         this.defaultLoader = loader;
@@ -160,6 +176,29 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return directSubclasses.getOrDefault(jclass, Set.of());
     }
 
+    @Override
+    public boolean isSubclass(JClass superclass, JClass subclass) {
+        return getSubtypeIndex().isSubclass(superclass, subclass);
+    }
+
+    @Override
+    public Collection<JClass> getAllSubclassesOf(JClass jclass) {
+        return getSubtypeIndex().getAllSubclassesOf(jclass);
+    }
+
+    private SubtypeIndex getSubtypeIndex() {
+        SubtypeIndex index = subtypeIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = subtypeIndex;
+                if (index == null) {
+                    index = subtypeIndex = new SubtypeIndex(this);
+                }
+            }
+        }
+        return index;
+    }
+
     private static boolean checkCHA = false;
 
     public static void setCheckCHA(boolean checkCHA) {
@@ -193,6 +232,16 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return null;
     }
 
+    @Override
+    public @Nullable
+    JMethod dispatch(JClass receiverClass, Subsignature subsignature) {
+        return dispatchTable.computeIfAbsent(receiverClass,
+                        c -> newConcurrentMap())
+                .computeIfAbsent(subsignature, s -> Optional.ofNullable(
+                        lookupMethod(receiverClass, s, false)))
+                .orElse(null);
+    }
+
     private JMethod lookupMethod(JClass jclass, Subsignature subsignature,
                                  boolean allowAbstract) {
         for (JClass c = jclass; c != null; c = c.getSuperClass()) {
@@ -0,0 +1,130 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static pascal.taie.util.collection.Maps.newMap;
+
+/**
+ * Transitive subtype relation of a class hierarchy, computed once over
+ * all classes of the hierarchy.
+ * <p>
+ * Each class is numbered, and the (reflexive) subtypes of each class are
+ * stored as a bit set of such numbers, so that subtype checks take
+ * constant time, and enumerating all subtypes of a class does not
+ * need to traverse the hierarchy again.
+ */
+final class SubtypeIndex {
+
+    private final ClassHierarchy hierarchy;
+
+    private final Map<JClass, Integer> classIds = newMap();
+
+    private final List<JClass> classes = new ArrayList<>();
+
+    /**
+     * Subtypes of each class, indexed by class number.
+     * Filled in {@link #computeSubtypes(JClass)}.
+     */
+    private final List<BitSet> subtypes = new ArrayList<>();
+
+    SubtypeIndex(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        hierarchy.allClasses().forEach(this::getId);
+        for (int i = 0; i < classes.size(); ++i) {
+            computeSubtypes(classes.get(i));
+        }
+    }
+
+    /**
+     * @return true if {@code subclass} is {@code superclass} or
+     * its direct or indirect subtype, otherwise false.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass) {
+        Integer superId = classIds.get(superclass);
+        Integer subId = classIds.get(subclass);
+        return superId != null && subId != null &&
+                subtypes.get(superId).get(subId);
+    }
+
+    /**
+     * @return {@code jclass} and all its direct and indirect subtypes,
+     * i.e., subinterfaces, implementors and subclasses.
+     */
+    List<JClass> getAllSubclassesOf(JClass jclass) {
+        Integer id = classIds.get(jclass);
+        if (id == null) {
+            return List.of(jclass);
+        }
+        BitSet bits = subtypes.get(id);
+        List<JClass> result = new ArrayList<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            result.add(classes.get(i));
+        }
+        return result;
+    }
+
+    private int getId(JClass jclass) {
+        Integer id = classIds.get(jclass);
+        if (id == null) {
+            id = classes.size();
+            classIds.put(jclass, id);
+            classes.add(jclass);
+            subtypes.add(null);
+        }
+        return id;
+    }
+
+    /**
+     * Computes subtypes of given class as the union of subtypes
+     * of its direct subtypes. The subtype relation is acyclic,
+     * thus the recursion terminates, and its depth is bounded
+     * by the depth of the class hierarchy.
+     */
+    private BitSet computeSubtypes(JClass jclass) {
+        int id = getId(jclass);
+        BitSet result = subtypes.get(id);
+        if (result == null) {
+            result = new BitSet();
+            result.set(id);
+            if (jclass.isInterface()) {
+                addSubtypes(result, hierarchy.getDirectSubinterfacesOf(jclass));
+                addSubtypes(result, hierarchy.getDirectImplementorsOf(jclass));
+            } else {
+                addSubtypes(result, hierarchy.getDirectSubclassesOf(jclass));
+            }
+            subtypes.set(id, result);
+        }
+        return result;
+    }
+
+    private void addSubtypes(BitSet result, Iterable<JClass> directSubtypes) {
+        for (JClass sub : directSubtypes) {
+            result.or(computeSubtypes(sub));
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.CompactICFG;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Tests the inter-procedural solvers with {@link IntConstants}, as the
+ * transfer functions of {@link InterConstantPropagation} are left to be
+ * finished in this assignment.
+ */
+public class InterSolverTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/inter";
+
+    /**
+     * Builds the world of given main class with the call graph and the ICFG.
+     */
+    private static ICFG<JMethod, Stmt> buildICFG(String main) {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", "cg=algorithm:cha", "-a", ICFGBuilder.ID});
+        return World.get().getResult(ICFGBuilder.ID);
+    }
+
+    /**
+     * @return the call site in the main method which calls given method.
+     */
+    private static Invoke getCallSite(String callee) {
+        for (Stmt stmt : World.get().getMainMethod().getIR()) {
+            if (stmt instanceof Invoke invoke &&
+                    invoke.getMethodRef().getName().equals(callee)) {
+                return invoke;
+            }
+        }
+        throw new AssertionError("No call to " + callee + " in main method");
+    }
+
+    /**
+     * Checks that the facts of {@code result} are at least as precise as
+     * those of {@code expected}, i.e., each constant in {@code expected}
+     * is either the same or UNDEF in {@code result}.
+     */
+    private static void assertRefines(ICFG<JMethod, Stmt> icfg,
+                                      DataflowResult<Stmt, CPFact> result,
+                                      DataflowResult<Stmt, CPFact> expected) {
+        for (Stmt node : icfg) {
+            CPFact fact = result.getOutFact(node);
+            expected.getOutFact(node).forEach((var, value) -> {
+                Value v = fact.get(var);
+                Assert.assertTrue(var + " at " + node + ": " + v + " does not refine " + value,
+                        value.isNAC() || v.isUndef() || v.equals(value));
+            });
+        }
+    }
+
+    /**
+     * Checks that {@code result} has the same facts as {@code expected}.
+     */
+    private static void assertSameFacts(ICFG<JMethod, Stmt> icfg,
+                                        DataflowResult<Stmt, CPFact> result,
+                                        DataflowResult<Stmt, CPFact> expected) {
+        for (Stmt node : icfg) {
+            Assert.assertEquals("IN fact of " + node,
+                    expected.getInFact(node), result.getInFact(node));
+            Assert.assertEquals("OUT fact of " + node,
+                    expected.getOutFact(node), result.getOutFact(node));
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        ICFG<JMethod, Stmt> icfg = buildICFG("Solvers");
+        IntConstants analysis = new IntConstants(icfg);
+        assertSameFacts(icfg,
+                new InterSolver<>(analysis, icfg, true, false).solve(),
+                new InterSolver<>(analysis, icfg, false, false).solve());
+    }
+
+    @Test
+    public void testCompactICFG() {
+        ICFG<JMethod, Stmt> icfg = buildICFG("Solvers");
+        ICFG<JMethod, Stmt> compact = new CompactICFG(
+                World.get().getResult(CallGraphBuilder.ID));
+        DataflowResult<Stmt, CPFact> expected =
+                new InterSolver<>(new IntConstants(icfg), icfg, false, false).solve();
+        IntConstants analysis = new IntConstants(compact);
+        assertSameFacts(icfg,
+                new InterSolver<>(analysis, compact, false, false).solve(), expected);
+        assertSameFacts(icfg,
+                new InterSolver<>(analysis, compact, true, false).solve(), expected);
+    }
+
+    @Test
+    public void testLazyICFG() {
+        // build the call graph only, so that CFGs are built by LazyICFG
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", "Solvers",
+                "-a", "cg=algorithm:cha"});
+        ICFG<JMethod, Stmt> lazy = new LazyICFG(
+                World.get().getResult(CallGraphBuilder.ID));
+        DataflowResult<Stmt, CPFact> result =
+                new InterSolver<>(new IntConstants(lazy), lazy, false, true).solve();
+        // dead() is only called in a branch which is never taken, thus
+        // it is neither discovered by the solver nor built by LazyICFG
+        JMethod dead = getCallSite("dead").getMethodRef().resolve();
+        JMethod twice = getCallSite("twice").getMethodRef().resolve();
+        Assert.assertTrue(dead.getIR().getResult(CFGBuilder.ID) == null);
+        Assert.assertTrue(twice.getIR().getResult(CFGBuilder.ID) != null);
+        Assert.assertTrue(result.getOutFact(lazy.getEntryOf(twice)) != null);
+        // the facts of the nodes which are not discovered are taken as
+        // initial facts, which they hold when they are solved eagerly
+        ICFG<JMethod, Stmt> compact = new CompactICFG(
+                World.get().getResult(CallGraphBuilder.ID));
+        DataflowResult<Stmt, CPFact> expected =
+                new InterSolver<>(new IntConstants(compact), compact, false, false).solve();
+        for (Stmt node : compact) {
+            Assert.assertEquals("IN fact of " + node, expected.getInFact(node),
+                    Objects.requireNonNullElseGet(result.getInFact(node), CPFact::new));
+            Assert.assertEquals("OUT fact of " + node, expected.getOutFact(node),
+                    Objects.requireNonNullElseGet(result.getOutFact(node), CPFact::new));
+        }
+    }
+
+    @Test
+    public void testSummary() {
+        ICFG<JMethod, Stmt> icfg = buildICFG("Solvers");
+        IntConstants analysis = new IntConstants(icfg);
+        DataflowResult<Stmt, CPFact> worklist =
+                new InterSolver<>(analysis, icfg, false, false).solve();
+        DataflowResult<Stmt, CPFact> summary =
+                new SummarySolver<>(analysis, icfg).solve();
+        assertRefines(icfg, summary, worklist);
+        // twice() is called with 3 and 10, thus its parameter is NAC for
+        // InterSolver, while its summaries for the two inputs return
+        // 6 and 20 respectively
+        Invoke use = getCallSite("use");
+        Var a = use.getInvokeExp().getArg(0);
+        Var b = use.getInvokeExp().getArg(1);
+        Assert.assertEquals(Value.getNAC(), worklist.getInFact(use).get(a));
+        Assert.assertEquals(Value.getNAC(), worklist.getInFact(use).get(b));
+        Assert.assertEquals(Value.makeConstant(6), summary.getInFact(use).get(a));
+        Assert.assertEquals(Value.makeConstant(20), summary.getInFact(use).get(b));
+    }
+
+    /**
+     * Inter-procedural constant propagation of int variables, which folds
+     * int literals, copies, additions and subtractions, and takes other
+     * int values as NAC. A branch of an if is infeasible if the condition
+     * is constant.
+     */
+    private static class IntConstants implements InterDataflowAnalysis<Stmt, CPFact> {
+
+        private final ICFG<JMethod, Stmt> icfg;
+
+        private IntConstants(ICFG<JMethod, Stmt> icfg) {
+            this.icfg = icfg;
+        }
+
+        @Override
+        public boolean isForward() {
+            return true;
+        }
+
+        @Override
+        public CPFact newBoundaryFact(Stmt boundary) {
+            CPFact fact = new CPFact();
+            for (Var param : icfg.getContainingMethodOf(boundary).getIR().getParams()) {
+                if (ConstantPropagation.canHoldInt(param)) {
+                    fact.update(param, Value.getNAC());
+                }
+            }
+            return fact;
+        }
+
+        @Override
+        public CPFact newInitialFact() {
+            return new CPFact();
+        }
+
+        @Override
+        public void meetInto(CPFact fact, CPFact target) {
+            fact.forEach((var, value) -> target.update(var, meetValue(value, target.get(var))));
+        }
+
+        private static Value meetValue(Value v1, Value v2) {
+            if (v1.isUndef() || v1.equals(v2)) {
+                return v2;
+            } else if (v2.isUndef()) {
+                return v1;
+            } else {
+                return Value.getNAC();
+            }
+        }
+
+        @Override
+        public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
+            CPFact newOut = in.copy();
+            // the result of a call comes along the return edges
+            if (!icfg.isCallSite(stmt) &&
+                    stmt instanceof DefinitionStmt<?, ?> def &&
+                    def.getLValue() instanceof Var lhs &&
+                    ConstantPropagation.canHoldInt(lhs)) {
+                newOut.update(lhs, evaluate(def.getRValue(), in));
+            }
+            return out.copyFrom(newOut);
+        }
+
+        private static Value evaluate(Exp exp, CPFact in) {
+            if (exp instanceof IntLiteral literal) {
+                return Value.makeConstant(literal.getValue());
+            } else if (exp instanceof Var var) {
+                return in.get(var);
+            } else if (exp instanceof ArithmeticExp arith &&
+                    (arith.getOperator() == ArithmeticExp.Op.ADD ||
+                            arith.getOperator() == ArithmeticExp.Op.SUB)) {
+                Value v1 = in.get(arith.getOperand1());
+                Value v2 = in.get(arith.getOperand2());
+                if (v1.isConstant() && v2.isConstant()) {
+                    return Value.makeConstant(arith.getOperator() == ArithmeticExp.Op.ADD
+                            ? v1.getConstant() + v2.getConstant()
+                            : v1.getConstant() - v2.getConstant());
+                }
+                return v1.isNAC() || v2.isNAC() ? Value.getNAC() : Value.getUndef();
+            }
+            return Value.getNAC();
+        }
+
+        @Override
+        public CPFact transferEdge(ICFGEdge<Stmt> edge, CPFact out) {
+            if (edge instanceof CallToReturnEdge) {
+                CPFact fact = out.copy();
+                Var result = ((Invoke) edge.getSource()).getResult();
+                if (result != null) {
+                    fact.remove(result);
+                }
+                return fact;
+            } else if (edge instanceof CallEdge<Stmt> callEdge) {
+                CPFact fact = new CPFact();
+                List<Var> args = ((Invoke) edge.getSource()).getInvokeExp().getArgs();
+                List<Var> params = callEdge.getCallee().getIR().getParams();
+                for (int i = 0; i < params.size(); ++i) {
+                    if (ConstantPropagation.canHoldInt(params.get(i))) {
+                        fact.update(params.get(i), out.get(args.get(i)));
+                    }
+                }
+                return fact;
+            } else if (edge instanceof ReturnEdge<Stmt> returnEdge) {
+                CPFact fact = new CPFact();
+                Var result = ((Invoke) returnEdge.getCallSite()).getResult();
+                if (result != null && ConstantPropagation.canHoldInt(result)) {
+                    Value value = Value.getUndef();
+                    for (Var retVar : returnEdge.getReturnVars()) {
+                        value = meetValue(value, out.get(retVar));
+                    }
+                    fact.update(result, value);
+                }
+                return fact;
+            } else {
+                return out;
+            }
+        }
+
+        @Override
+        public boolean isFeasible(ICFGEdge<Stmt> edge, CPFact out) {
+            if (edge instanceof NormalEdge<Stmt> normalEdge &&
+                    edge.getSource() instanceof If ifStmt) {
+                Edge.Kind kind = normalEdge.getCFGEdge().getKind();
+                ConditionExp cond = ifStmt.getCondition();
+                Value v1 = out.get(cond.getOperand1());
+                Value v2 = out.get(cond.getOperand2());
+                if ((kind == Edge.Kind.IF_TRUE || kind == Edge.Kind.IF_FALSE) &&
+                        v1.isConstant() && v2.isConstant()) {
+                    int i1 = v1.getConstant();
+                    int i2 = v2.getConstant();
+                    boolean taken = switch (cond.getOperator()) {
+                        case EQ -> i1 == i2;
+                        case NE -> i1 != i2;
+                        case LT -> i1 < i2;
+                        case GT -> i1 > i2;
+                        case LE -> i1 <= i2;
+                        case GE -> i1 >= i2;
+                    };
+                    return taken == (kind == Edge.Kind.IF_TRUE);
+                }
+            }
+            return true;
+        }
+    }
+}
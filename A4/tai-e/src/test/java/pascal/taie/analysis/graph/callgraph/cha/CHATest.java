@@ -27,8 +27,28 @@ import pascal.taie.analysis.Tests;
 
 public class CHATest {
     
+    private static final String[] MAIN_CLASSES = {
+            "StaticCall",
+            "VirtualCall",
+            "Interface",
+            "AbstractMethod",
+    };
+
     protected static void test(String main) {
-        Tests.test(main, "src/test/resources/cha/", "cg", "algorithm:cha");
+        test(main, "algorithm:cha");
+    }
+
+    protected static void test(String main, String opts) {
+        Tests.test(main, "src/test/resources/cha/", "cg", opts);
+    }
+
+    /**
+     * Runs all test cases with given options.
+     */
+    protected static void testAll(String opts) {
+        for (String main : MAIN_CLASSES) {
+            test(main, opts);
+        }
     }
 
     @Test
@@ -50,4 +70,14 @@ public class CHATest {
     public void testAbstractMethod() {
         test("AbstractMethod");
     }
+
+    @Test
+    public void testLazy() {
+        testAll("algorithm:cha;lazy:true");
+    }
+
+    @Test
+    public void testParallel() {
+        testAll("algorithm:cha;parallel:true");
+    }
 }
@@ -0,0 +1,34 @@
+class Solvers {
+
+    public static void main(String[] args) {
+        int a = twice(3);
+        int b = twice(10);
+        int c = sum(3);
+        use(a, b, c);
+        int k = 1;
+        if (k > 2) {
+            dead(k);
+        }
+    }
+
+    static int twice(int x) {
+        return add(x, x);
+    }
+
+    static int add(int x, int y) {
+        return x + y;
+    }
+
+    static int sum(int n) {
+        if (n > 0) {
+            return n + sum(n - 1);
+        }
+        return 0;
+    }
+
+    static void use(int a, int b, int c) {
+    }
+
+    static void dead(int x) {
+    }
+}
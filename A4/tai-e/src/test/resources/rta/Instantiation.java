@@ -0,0 +1,32 @@
+public class Instantiation {
+
+    public static void main(String[] args) {
+        A a = create();
+        a.foo();
+        new C();
+    }
+
+    static A create() {
+        return new B();
+    }
+}
+
+class A {
+    void foo() {
+    }
+}
+
+class B extends A {
+    void foo() {
+    }
+}
+
+class C extends A {
+    void foo() {
+    }
+}
+
+class D extends A {
+    void foo() {
+    }
+}
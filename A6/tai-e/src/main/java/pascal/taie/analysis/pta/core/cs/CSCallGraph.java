@@ -64,8 +64,16 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
      */
     public boolean addReachableMethod(CSMethod csMethod) {
         if (reachableMethods.add(csMethod)) {
-            callSitesIn(csMethod).forEach(csCallSite ->
-                    csCallSite.setContainer(csMethod));
+            // call sites of reachable methods are computed only once
+            // and cached, as they are queried repeatedly
+            Context context = csMethod.getContext();
+            for (Stmt s : csMethod.getMethod().getIR()) {
+                if (s instanceof Invoke invoke) {
+                    CSCallSite csCallSite = csManager.getCSCallSite(context, invoke);
+                    csCallSite.setContainer(csMethod);
+                    callSitesIn.put(csMethod, csCallSite);
+                }
+            }
             return true;
         } else {
             return false;
@@ -105,6 +113,9 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     @Override
     public Set<CSCallSite> getCallSitesIn(CSMethod csMethod) {
+        if (reachableMethods.contains(csMethod)) {
+            return callSitesIn.get(csMethod);
+        }
         JMethod method = csMethod.getMethod();
         Context context = csMethod.getContext();
         Set<CSCallSite> callSites = Sets.newHybridOrderedSet();
@@ -129,8 +140,8 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     @Override
     public Stream<Edge<CSCallSite, CSMethod>> edges() {
-        return reachableMethods.stream()
-                .flatMap(this::callSitesIn)
+        return callSitesIn.values()
+                .stream()
                 .flatMap(this::edgesOutOf);
     }
 
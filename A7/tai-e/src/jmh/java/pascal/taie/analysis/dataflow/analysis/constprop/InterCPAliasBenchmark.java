@@ -0,0 +1,74 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pascal.taie.analysis.Benchmarks;
+import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+public class InterCPAliasBenchmark {
+
+    @Param({"ArrayLoops", "ObjSens"})
+    public String main;
+
+    private InterConstantPropagation analysis;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String options = "edge-refine:false;alias-aware:true;pta:cspta";
+        Benchmarks.buildWorldAndRun(main, "src/test/resources/dataflow/constprop/alias",
+                "-a", InterConstantPropagation.ID + "=" + options,
+                "-a", "cspta=cs:2-obj", "-a", "cg=algorithm:cspta");
+        analysis = new InterConstantPropagation(
+                Benchmarks.getConfig(InterConstantPropagation.ID, options));
+    }
+
+    /**
+     * Measures {@link pascal.taie.analysis.dataflow.inter.InterSolver}
+     * on the ICFG and pointer analysis result built in {@link #setUp()}.
+     */
+    @Benchmark
+    public Object analyze() {
+        return analysis.analyze();
+    }
+}
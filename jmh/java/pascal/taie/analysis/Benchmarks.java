@@ -0,0 +1,121 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigManager;
+import pascal.taie.config.Configs;
+import pascal.taie.config.Options;
+import pascal.taie.config.PlanConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Static utility methods for JMH benchmarks, which are shared by
+ * the benchmarks of all assignments.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Builds the world for a benchmark input.
+     * This is meant to be called once per trial.
+     *
+     * @param main      the main class to be analyzed
+     * @param classPath where the main class is located
+     * @param opts      other options of Tai-e
+     */
+    public static void buildWorld(String main, String classPath, String... opts) {
+        Main.buildWorld(getArgs(main, classPath, opts));
+    }
+
+    /**
+     * Builds the world for a benchmark input, and runs given analyses,
+     * so that the results required by the benchmarked analysis are
+     * available. This is meant to be called once per trial.
+     *
+     * @param main      the main class to be analyzed
+     * @param classPath where the main class is located
+     * @param opts      other options of Tai-e, e.g., "-a", "cfg"
+     */
+    public static void buildWorldAndRun(String main, String classPath, String... opts) {
+        Main.main(getArgs(main, classPath, opts));
+    }
+
+    /**
+     * As in the tests, the class library of the running JVM is analyzed
+     * together with the benchmark inputs (option "-pp").
+     */
+    private static String[] getArgs(String main, String classPath, String... opts) {
+        List<String> args = new ArrayList<>();
+        args.add("-pp");
+        Collections.addAll(args, "-cp", classPath);
+        Collections.addAll(args, "-m", main);
+        Collections.addAll(args, opts);
+        return args.toArray(new String[0]);
+    }
+
+    /**
+     * @param id      ID of the analysis
+     * @param options options for the analysis, in the same format as
+     *                the argument of "-a", e.g., "cs:2-obj;only-app:true"
+     * @return configuration of given analysis, whose options not given
+     * by {@code options} take the default values.
+     */
+    public static AnalysisConfig getConfig(String id, String options) {
+        List<AnalysisConfig> configs = AnalysisConfig.parseConfigs(
+                Configs.getAnalysisConfig());
+        String arg = options.isEmpty() ? id : id + "=" + options;
+        new ConfigManager(configs).overwriteOptions(
+                PlanConfig.readConfigs(Options.parse("-a", arg)));
+        return configs.stream()
+                .filter(config -> config.getId().equals(id))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * @param scope "app" for the methods of application classes,
+     *              or "all" for the methods of all classes
+     * @return IRs of the concrete methods in given scope.
+     */
+    public static List<IR> getIRs(String scope) {
+        Stream<JClass> classes = scope.equals("all") ?
+                World.get().getClassHierarchy().allClasses() :
+                World.get().getClassHierarchy().applicationClasses();
+        return classes.flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .toList();
+    }
+}
@@ -0,0 +1,38 @@
+// Build logic of JMH benchmarks, which is shared by all assignments.
+// Apply it in build.gradle.kts of an assignment by
+//     apply(from = "../../jmh/jmh.gradle.kts")
+// Then the benchmarks of the assignment are put in src/jmh/java,
+// and are run by `gradlew jmh`, e.g.,
+//     gradlew jmh -PjmhArgs="DeadCodeBenchmark -p scope=all"
+// The utilities shared by the benchmarks (pascal.taie.analysis.Benchmarks)
+// are in jmh/java, which is compiled together with src/jmh/java.
+
+val sourceSets = the<SourceSetContainer>()
+val main: SourceSet = sourceSets["main"]
+
+val jmh: SourceSet = sourceSets.create("jmh") {
+    java.srcDir(projectDir.parentFile.parentFile.resolve("jmh/java"))
+    compileClasspath += main.output
+    runtimeClasspath += main.output
+}
+
+configurations[jmh.implementationConfigurationName]
+    .extendsFrom(configurations["implementation"])
+
+dependencies {
+    add(jmh.implementationConfigurationName, "org.openjdk.jmh:jmh-core:1.35")
+    add(jmh.annotationProcessorConfigurationName,
+        "org.openjdk.jmh:jmh-generator-annprocess:1.35")
+}
+
+tasks.named<JavaCompile>(jmh.compileJavaTaskName) { options.encoding = "UTF-8" }
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs JMH benchmarks."
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    // report allocation rate together with throughput
+    args("-prof", "gc")
+    (project.findProperty("jmhArgs") as String?)?.let { args(it.split(" ")) }
+}